@@ -0,0 +1,74 @@
+package coursework.benchmarks;
+
+import coursework.Q1.MaxPointsOnLine;
+import coursework.Q1b.WordBreakAll;
+import coursework.Q2.MaxPathSumTree;
+import coursework.Q3.MaxProfitKTransactions;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Q1 - Q3 solvers on seeded inputs of growing size.
+ *
+ * "size" means:
+ * - maxPoints: number of points (on a 200 x 200 grid, so lines are shared)
+ * - wordBreak: size / 10 words in the string (dictionary of 300 words; the
+ *   solver recurses once per word, so longer strings overflow the stack)
+ * - maxPathSum: size * 100 tree nodes
+ * - maxProfit: size * 100 days, with k = 2 and k = 50 transactions
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ArrayProblemsBenchmark {
+
+    @Param({"100", "1000", "3000"})
+    public int size;
+
+    private int[][] points;
+    private String sentence;
+    private List<String> dictionary;
+    private MaxPathSumTree.TreeNode tree;
+    private int[] prices;
+
+    @Setup
+    public void setup() {
+        SplittableRandom rnd = new SplittableRandom(Generators.SEED);
+        points = Generators.points(rnd, size, 200);
+        dictionary = Generators.dictionary(rnd, 300);
+        sentence = Generators.sentence(rnd, dictionary, 300, size / 10);
+        tree = Generators.tree(rnd, size * 100);
+        prices = Generators.prices(rnd, size * 100);
+    }
+
+    @Benchmark
+    public int maxPoints() {
+        return MaxPointsOnLine.maxPoints(points);
+    }
+
+    @Benchmark
+    public List<String> wordBreak() {
+        return WordBreakAll.wordBreak(sentence, dictionary);
+    }
+
+    @Benchmark
+    public int maxPathSum() {
+        return MaxPathSumTree.maxPathSum(tree);
+    }
+
+    @Benchmark
+    public int maxProfitK2() {
+        return MaxProfitKTransactions.maxProfit(2, prices);
+    }
+
+    @Benchmark
+    public int maxProfitK50() {
+        return MaxProfitKTransactions.maxProfit(50, prices);
+    }
+}
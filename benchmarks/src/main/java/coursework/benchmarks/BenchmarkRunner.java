@@ -0,0 +1,43 @@
+package coursework.benchmarks;
+
+import org.openjdk.jmh.Main;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of benchmarks.jar: the normal JMH command line, with two
+ * defaults for regression tracking.
+ *
+ * - GC profiler on (allocation rate and bytes per operation next to the
+ *   time), unless other profilers are given with -prof.
+ * - Results written as JSON to jmh-result.json, unless -rf / -rff say
+ *   otherwise.
+ *
+ * Examples:
+ *   java -jar benchmarks/target/benchmarks.jar                  (everything)
+ *   java -jar benchmarks/target/benchmarks.jar GraphSolvers -p nodes=1000
+ *   java -jar benchmarks/target/benchmarks.jar -l               (list)
+ */
+public final class BenchmarkRunner {
+
+    private BenchmarkRunner() { }
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions cmd = new CommandLineOptions(args);
+        if (cmd.shouldHelp() || cmd.shouldList() || cmd.shouldListProfilers() || cmd.shouldListResultFormats()) {
+            Main.main(args);
+            return;
+        }
+
+        ChainedOptionsBuilder opts = new OptionsBuilder().parent(cmd);
+        if (cmd.getProfilers().isEmpty()) opts.addProfiler(GCProfiler.class);
+        if (!cmd.getResultFormat().hasValue()) opts.resultFormat(ResultFormatType.JSON);
+        if (!cmd.getResult().hasValue()) opts.result("jmh-result.json");
+
+        new Runner(opts.build()).run();
+    }
+}
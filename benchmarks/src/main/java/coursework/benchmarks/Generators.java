@@ -0,0 +1,151 @@
+package coursework.benchmarks;
+
+import coursework.Q2.MaxPathSumTree;
+import coursework.Q4.SmartGridOptimizer;
+import coursework.Task6.SafestPathReliability;
+
+import java.util.*;
+
+/**
+ * Seeded synthetic inputs for the benchmarks.
+ *
+ * Every generator takes its own SplittableRandom, so a benchmark that is
+ * set up with the same seed and @Param values always measures the same input
+ * (results stay comparable across runs and commits).
+ */
+final class Generators {
+
+    static final long SEED = 42;
+
+    private Generators() { }
+
+    /**
+     * n points on a grid x grid square. A small grid gives many collinear
+     * points and duplicates, a large one mostly distinct slopes.
+     */
+    static int[][] points(SplittableRandom rnd, int n, int grid) {
+        int[][] p = new int[n][2];
+        for (int[] q : p) {
+            q[0] = rnd.nextInt(grid);
+            q[1] = rnd.nextInt(grid);
+        }
+        return p;
+    }
+
+    /**
+     * Dictionary of random words plus a few concatenated pairs, so some
+     * positions can be split in two ways.
+     */
+    static List<String> dictionary(SplittableRandom rnd, int size) {
+        List<String> dict = new ArrayList<>(size + size / 5);
+        for (int i = 0; i < size; i++) dict.add(word(rnd, 3 + rnd.nextInt(5)));
+        for (int i = 0; i < size / 5; i++) {
+            dict.add(dict.get(rnd.nextInt(size)) + dict.get(rnd.nextInt(size)));
+        }
+        return dict;
+    }
+
+    /**
+     * A string made of `words` words taken from the first `base` entries of
+     * the dictionary (the single words).
+     */
+    static String sentence(SplittableRandom rnd, List<String> dict, int base, int words) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < words; i++) sb.append(dict.get(rnd.nextInt(base)));
+        return sb.toString();
+    }
+
+    private static String word(SplittableRandom rnd, int len) {
+        char[] c = new char[len];
+        for (int i = 0; i < len; i++) c[i] = (char) ('a' + rnd.nextInt(26));
+        return new String(c);
+    }
+
+    /**
+     * Complete binary tree with n nodes and values in [-1000, 1000]
+     * (depth log n, so recursive solvers cannot overflow the stack).
+     */
+    static MaxPathSumTree.TreeNode tree(SplittableRandom rnd, int n) {
+        MaxPathSumTree.TreeNode[] nodes = new MaxPathSumTree.TreeNode[n];
+        for (int i = 0; i < n; i++) nodes[i] = new MaxPathSumTree.TreeNode(rnd.nextInt(2001) - 1000);
+        for (int i = 0; i < n; i++) {
+            if (2 * i + 1 < n) nodes[i].left = nodes[2 * i + 1];
+            if (2 * i + 2 < n) nodes[i].right = nodes[2 * i + 2];
+        }
+        return n == 0 ? null : nodes[0];
+    }
+
+    /**
+     * Random-walk share prices (never below 1).
+     */
+    static int[] prices(SplittableRandom rnd, int days) {
+        int[] p = new int[days];
+        int x = 1000;
+        for (int i = 0; i < days; i++) {
+            x = Math.max(1, x + rnd.nextInt(41) - 20);
+            p[i] = x;
+        }
+        return p;
+    }
+
+    /**
+     * District -> demand (kWh) for `districts` districts.
+     */
+    static Map<String, Double> demand(SplittableRandom rnd, int districts) {
+        Map<String, Double> d = new HashMap<>();
+        for (int i = 0; i < districts; i++) d.put(String.format("D%04d", i), 10 + rnd.nextDouble() * 90);
+        return d;
+    }
+
+    /**
+     * Solar / hydro / diesel sources with random windows, sized so that
+     * together they roughly cover the demand.
+     */
+    static List<SmartGridOptimizer.Source> sources(SplittableRandom rnd, int count, double totalDemand) {
+        String[] types = {"Solar", "Hydro", "Diesel"};
+        double[] costs = {1.0, 1.5, 3.0};
+        List<SmartGridOptimizer.Source> s = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int t = i % 3;
+            int start = t == 0 ? 6 + rnd.nextInt(3) : 0;
+            int end = t == 0 ? 16 + rnd.nextInt(3) : 23;
+            double cap = totalDemand / count * (0.5 + rnd.nextDouble());
+            s.add(new SmartGridOptimizer.Source("S" + i, types[t], cap, start, end, costs[t] + rnd.nextDouble() * 0.2));
+        }
+        return s;
+    }
+
+    /**
+     * Road-like reliability graph: every node links to `degree` nodes with
+     * nearby ids, reliability in [0.5, 1).
+     */
+    static List<List<SafestPathReliability.Edge>> reliabilityGraph(SplittableRandom rnd, int n, int degree) {
+        List<List<SafestPathReliability.Edge>> g = new ArrayList<>(n);
+        for (int u = 0; u < n; u++) {
+            List<SafestPathReliability.Edge> out = new ArrayList<>(degree);
+            for (int k = 0; k < degree; k++) {
+                int v = Math.min(n - 1, Math.max(0, u + rnd.nextInt(201) - 100));
+                out.add(new SafestPathReliability.Edge(v, 0.5 + rnd.nextDouble() * 0.5));
+            }
+            g.add(out);
+        }
+        return g;
+    }
+
+    /**
+     * Capacity matrix with about `degree` outgoing roads per node to ids at
+     * most 20 away (two thirds of them towards higher ids, so node 0 always
+     * has a way out), capacities in [1, 100].
+     */
+    static int[][] capacityMatrix(SplittableRandom rnd, int n, int degree) {
+        int[][] c = new int[n][n];
+        for (int u = 0; u < n; u++) {
+            for (int k = 0; k < degree; k++) {
+                int step = 1 + rnd.nextInt(20);
+                int v = rnd.nextInt(3) < 2 ? Math.min(n - 1, u + step) : Math.max(0, u - step);
+                if (v != u) c[u][v] = 1 + rnd.nextInt(100);
+            }
+        }
+        return c;
+    }
+}
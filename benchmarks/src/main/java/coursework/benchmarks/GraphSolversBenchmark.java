@@ -0,0 +1,78 @@
+package coursework.benchmarks;
+
+import coursework.Task6.ReliabilityGraph;
+import coursework.Task6.SafestPathReliability;
+import coursework.Task6b.DinicMaxFlow;
+import coursework.Task6b.EdmondsKarpMaxFlow;
+import coursework.Task6b.FlowGraph;
+import coursework.Task6b.PushRelabelMaxFlow;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Task 6 solvers on seeded road-like graphs ("nodes" nodes, nearby ids
+ * linked, so source 0 and target n - 1 are far apart).
+ *
+ * - Safest path: adjacency-list Dijkstra (as Main calls it) vs the CSR
+ *   ReliabilityGraph with a reused Workspace.
+ * - Max flow: EdmondsKarpMaxFlow on the n x n capacity matrix (allocates
+ *   its flow matrix every call) vs Dinic and push-relabel on the same
+ *   network as a FlowGraph.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GraphSolversBenchmark {
+
+    @Param({"100", "1000", "4000"})
+    public int nodes;
+
+    private List<List<SafestPathReliability.Edge>> adjacency;
+    private ReliabilityGraph reliability;
+    private SafestPathReliability.Workspace workspace;
+
+    private int[][] capacity;
+    private FlowGraph flowGraph;
+
+    @Setup
+    public void setup() {
+        SplittableRandom rnd = new SplittableRandom(Generators.SEED);
+        adjacency = Generators.reliabilityGraph(rnd, nodes, 4);
+        reliability = ReliabilityGraph.fromAdjacency(nodes, adjacency);
+        workspace = new SafestPathReliability.Workspace(nodes);
+
+        capacity = Generators.capacityMatrix(rnd, nodes, 6);
+        flowGraph = FlowGraph.fromMatrix(capacity);
+    }
+
+    @Benchmark
+    public SafestPathReliability.Result safestPathList() {
+        return SafestPathReliability.safestPath(nodes, adjacency, 0, nodes - 1);
+    }
+
+    @Benchmark
+    public SafestPathReliability.Result safestPathCsr() {
+        return SafestPathReliability.safestPath(reliability, 0, nodes - 1, workspace);
+    }
+
+    @Benchmark
+    public int edmondsKarp() {
+        return EdmondsKarpMaxFlow.maxFlow(nodes, capacity, 0, nodes - 1);
+    }
+
+    @Benchmark
+    public long dinic() {
+        return DinicMaxFlow.maxFlow(flowGraph, 0, nodes - 1);
+    }
+
+    @Benchmark
+    public long pushRelabel() {
+        return PushRelabelMaxFlow.maxFlow(flowGraph, 0, nodes - 1);
+    }
+}
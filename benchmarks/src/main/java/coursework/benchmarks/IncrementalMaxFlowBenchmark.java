@@ -0,0 +1,88 @@
+package coursework.benchmarks;
+
+import coursework.Task6b.DinicMaxFlow;
+import coursework.Task6b.FlowGraph;
+import coursework.Task6b.FlowNetwork;
+import coursework.Task6b.PushRelabelMaxFlow;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Warm capacity updates on a FlowNetwork vs solving the changed network
+ * from zero flow.
+ *
+ * The network is a seeded road-like graph: "nodes" nodes, 10 edges per node,
+ * each edge going to a node at most 1000 ids away, so s = 0 and t = n - 1
+ * are far apart.
+ *
+ * Every warm call toggles one edge between its original capacity and half
+ * of it: edges on the minimum cut (the value changes) and a random edge
+ * (usually it does not). The cold baselines only solve; the graph is built
+ * once in setup.
+ *
+ * Expected trade-off: warmRandomEdge is about 100x faster than
+ * coldPushRelabel, while warmCutEdge falls back to a cold push-relabel
+ * solve and costs about the same as coldPushRelabel (it is not faster).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IncrementalMaxFlowBenchmark {
+
+    @Param({"20000", "200000"})
+    public int nodes;
+
+    private FlowGraph graph;
+    private FlowNetwork network;
+    private int cutEdge, randomEdge;
+    private boolean cutHalved, randomHalved;
+
+    @Setup
+    public void setup() {
+        SplittableRandom rnd = new SplittableRandom(42);
+        int m = nodes * 10;
+        int[] from = new int[m], to = new int[m];
+        long[] cap = new long[m];
+        for (int i = 0; i < m; i++) {
+            from[i] = rnd.nextInt(nodes);
+            to[i] = Math.min(nodes - 1, Math.max(0, from[i] + rnd.nextInt(2001) - 1000));
+            cap[i] = 1 + rnd.nextInt(1000);
+        }
+        graph = FlowGraph.of(nodes, from, to, cap);
+        network = new FlowNetwork(graph, 0, nodes - 1);
+
+        List<Integer> cut = network.result().cutEdges;
+        cutEdge = cut.get(rnd.nextInt(cut.size()));
+        randomEdge = rnd.nextInt(m);
+    }
+
+    @Benchmark
+    public long warmCutEdge() {
+        cutHalved = !cutHalved;
+        long c = graph.capacity(cutEdge);
+        return network.setCapacity(cutEdge, cutHalved ? c / 2 : c);
+    }
+
+    @Benchmark
+    public long warmRandomEdge() {
+        randomHalved = !randomHalved;
+        long c = graph.capacity(randomEdge);
+        return network.setCapacity(randomEdge, randomHalved ? c / 2 : c);
+    }
+
+    @Benchmark
+    public long coldPushRelabel() {
+        return PushRelabelMaxFlow.maxFlow(graph, 0, nodes - 1);
+    }
+
+    @Benchmark
+    public long coldDinic() {
+        return DinicMaxFlow.maxFlow(graph, 0, nodes - 1);
+    }
+}
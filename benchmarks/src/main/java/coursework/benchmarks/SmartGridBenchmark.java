@@ -0,0 +1,51 @@
+package coursework.benchmarks;
+
+import coursework.Q4.SmartGridOptimizer;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SmartGridOptimizer.allocateHour for a growing number of districts and
+ * sources. Hour 12 has solar, hydro and diesel available; hour 3 has no solar,
+ * so the expensive sources are used too.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SmartGridBenchmark {
+
+    @Param({"3", "30", "300"})
+    public int districts;
+
+    @Param({"6", "60"})
+    public int sources;
+
+    private Map<String, Double> demand;
+    private List<SmartGridOptimizer.Source> sourceList;
+
+    @Setup
+    public void setup() {
+        SplittableRandom rnd = new SplittableRandom(Generators.SEED);
+        demand = Generators.demand(rnd, districts);
+        double total = 0;
+        for (double d : demand.values()) total += d;
+        sourceList = Generators.sources(rnd, sources, total);
+    }
+
+    @Benchmark
+    public SmartGridOptimizer.HourResult allocateNoon() {
+        return SmartGridOptimizer.allocateHour(12, demand, sourceList, 0.10);
+    }
+
+    @Benchmark
+    public SmartGridOptimizer.HourResult allocateNight() {
+        return SmartGridOptimizer.allocateHour(3, demand, sourceList, 0.10);
+    }
+}
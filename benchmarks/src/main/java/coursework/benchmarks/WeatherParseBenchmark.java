@@ -0,0 +1,86 @@
+package coursework.benchmarks;
+
+import coursework.Q5.WeatherJson;
+import coursework.Q5.WeatherRow;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DOM (JsonParser tree) vs streaming (JsonReader) parsing of OpenWeatherMap
+ * responses.
+ *
+ * Both sides start from the raw response bytes, as they arrive from the
+ * network: the DOM side has to decode them into a String first (what
+ * BodyHandlers.ofString did), the streaming side reads them directly.
+ *
+ * "cities" is the number of entries in a group/forecast-style payload.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WeatherParseBenchmark {
+
+    @Param({"1", "20", "1000"})
+    public int cities;
+
+    private byte[] single;
+    private byte[] group;
+
+    @Setup
+    public void setup() {
+        SplittableRandom rnd = new SplittableRandom(42);
+        single = city(rnd, 0).getBytes(StandardCharsets.UTF_8);
+
+        StringBuilder sb = new StringBuilder("{\"cod\":\"200\",\"cnt\":").append(cities).append(",\"list\":[");
+        for (int i = 0; i < cities; i++) {
+            if (i > 0) sb.append(',');
+            sb.append(city(rnd, i));
+        }
+        group = sb.append("]}").toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public WeatherRow singleDom() {
+        return WeatherJson.parseDom(new String(single, StandardCharsets.UTF_8));
+    }
+
+    @Benchmark
+    public WeatherRow singleStreaming() throws IOException {
+        return WeatherJson.read(new ByteArrayInputStream(single));
+    }
+
+    @Benchmark
+    public List<WeatherRow> groupDom() {
+        return WeatherJson.parseDomGroup(new String(group, StandardCharsets.UTF_8));
+    }
+
+    @Benchmark
+    public List<WeatherRow> groupStreaming() throws IOException {
+        return WeatherJson.readGroup(new ByteArrayInputStream(group));
+    }
+
+    /**
+     * A full current-weather object, including the fields we skip.
+     */
+    private static String city(SplittableRandom rnd, int i) {
+        return "{\"coord\":{\"lon\":" + (80 + rnd.nextDouble() * 8) + ",\"lat\":" + (26 + rnd.nextDouble() * 4) + "},"
+                + "\"weather\":[{\"id\":800,\"main\":\"Clear\",\"description\":\"clear sky\",\"icon\":\"01d\"}],"
+                + "\"base\":\"stations\","
+                + "\"main\":{\"temp\":" + (rnd.nextDouble() * 35) + ",\"feels_like\":20.1,\"temp_min\":18.0,"
+                + "\"temp_max\":24.0,\"pressure\":1012,\"humidity\":" + rnd.nextInt(100) + ",\"sea_level\":1012,\"grnd_level\":860},"
+                + "\"visibility\":10000,"
+                + "\"wind\":{\"speed\":" + (rnd.nextDouble() * 10) + ",\"deg\":" + rnd.nextInt(360) + ",\"gust\":4.2},"
+                + "\"clouds\":{\"all\":0},\"dt\":1700000000,"
+                + "\"sys\":{\"type\":1,\"id\":9201,\"country\":\"NP\",\"sunrise\":1699999000,\"sunset\":1700039000},"
+                + "\"timezone\":20700,\"id\":" + (1280000 + i) + ",\"name\":\"City" + i + "\",\"cod\":200}";
+    }
+}
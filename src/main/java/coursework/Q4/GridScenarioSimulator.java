@@ -0,0 +1,206 @@
+package coursework.Q4;
+
+import coursework.Q4.SmartGridOptimizer.HourResult;
+import coursework.Q4.SmartGridOptimizer.Source;
+
+import java.util.*;
+import java.util.stream.IntStream;
+
+/**
+ * @author Nishan Rai
+ * Monte Carlo scenario simulator for the Smart Grid optimizer.
+ *
+ * Problem summary:
+ * - Real demand and source output are uncertain, so a single allocateHour call
+ *   says little about how much diesel backup is really needed.
+ * - We generate N random scenarios and run the normal allocation for every
+ *   hour of every scenario, then look at the distribution of the results.
+ *
+ * Randomness per scenario-hour:
+ * - Demand noise: each district's demand is multiplied by (1 + sigma * N(0,1)).
+ * - Source outage: each source is fully offline with probability outageProb.
+ * - Capacity derating: otherwise capacity is reduced by U(0, maxDerate).
+ *
+ * Parallelism:
+ * - Scenarios are cut into fixed-size chunks, each chunk gets its own
+ *   SplittableRandom split from the seed (in chunk order), and chunks run on
+ *   the common ForkJoin pool. Same seed => same results on any number of cores.
+ *
+ * Time Complexity: O(N * H * cost(allocateHour)) work, divided across cores
+ * Space Complexity: O(N) for the per-scenario totals
+ */
+public final class GridScenarioSimulator {
+
+    private static final int CHUNK = 1024;
+
+    private GridScenarioSimulator() {
+    }
+
+    /**
+     * Noise model and run size.
+     */
+    public static class Config {
+        public final int scenarios;
+        public final double demandSigma;  // e.g. 0.15 means 15% std deviation
+        public final double outageProb;   // chance a source is down for an hour
+        public final double maxDerate;    // e.g. 0.30 means up to 30% capacity loss
+        public final long seed;
+
+        public Config(int scenarios, double demandSigma, double outageProb, double maxDerate, long seed) {
+            if (scenarios <= 0) throw new IllegalArgumentException("scenarios must be positive");
+            if (!(demandSigma >= 0)) throw new IllegalArgumentException("demandSigma must be non-negative");
+            if (outageProb < 0 || outageProb > 1) throw new IllegalArgumentException("outageProb must be in [0,1]");
+            if (maxDerate < 0 || maxDerate > 1) throw new IllegalArgumentException("maxDerate must be in [0,1]");
+            this.scenarios = scenarios;
+            this.demandSigma = demandSigma;
+            this.outageProb = outageProb;
+            this.maxDerate = maxDerate;
+            this.seed = seed;
+        }
+    }
+
+    /**
+     * Percentile summary of one metric across all scenarios.
+     */
+    public static class Distribution {
+        public final double mean;
+        public final double p50;
+        public final double p90;
+        public final double p95;
+        public final double p99;
+        public final double max;
+
+        Distribution(double[] values) {
+            double[] v = values.clone();
+            Arrays.parallelSort(v);
+            double s = 0;
+            for (double x : v) s += x;
+            this.mean = s / v.length;
+            this.p50 = percentile(v, 50);
+            this.p90 = percentile(v, 90);
+            this.p95 = percentile(v, 95);
+            this.p99 = percentile(v, 99);
+            this.max = v[v.length - 1];
+        }
+
+        @Override
+        public String toString() {
+            return String.format("mean=%.2f p50=%.2f p90=%.2f p95=%.2f p99=%.2f max=%.2f",
+                    mean, p50, p90, p95, p99, max);
+        }
+    }
+
+    /**
+     * Result of a simulation run. The raw per-scenario arrays are kept so callers
+     * can compute their own statistics (index i = scenario i).
+     */
+    public static class SimulationResult {
+        public final int scenarios;
+        public final int hoursPerScenario;
+        public final double[] cost;
+        public final double[] unmetKwh;
+        public final double[] dieselKwh;
+        public final Distribution costDist;
+        public final Distribution unmetDist;
+        public final Distribution dieselDist;
+        public final long elapsedMs;
+
+        SimulationResult(int scenarios, int hoursPerScenario,
+                         double[] cost, double[] unmetKwh, double[] dieselKwh, long elapsedMs) {
+            this.scenarios = scenarios;
+            this.hoursPerScenario = hoursPerScenario;
+            this.cost = cost;
+            this.unmetKwh = unmetKwh;
+            this.dieselKwh = dieselKwh;
+            this.costDist = new Distribution(cost);
+            this.unmetDist = new Distribution(unmetKwh);
+            this.dieselDist = new Distribution(dieselKwh);
+            this.elapsedMs = elapsedMs;
+        }
+    }
+
+    /**
+     * Run the simulation.
+     *
+     * @param hours   hours of the day simulated in every scenario (e.g. 0..23)
+     * @param demand  base district -> demand(kWh), used for every hour
+     * @param sources base energy sources
+     * @param flex    allowed flexibility passed to allocateHour
+     * @param cfg     noise model, scenario count and seed
+     * @return per-scenario totals and their percentile summaries
+     */
+    public static SimulationResult simulate(int[] hours,
+                                            Map<String, Double> demand,
+                                            List<Source> sources,
+                                            double flex,
+                                            Config cfg) {
+        long start = System.nanoTime();
+
+        int n = cfg.scenarios;
+        double[] cost = new double[n];
+        double[] unmet = new double[n];
+        double[] diesel = new double[n];
+
+        // One split per chunk, taken in chunk order so the seed fully decides the run
+        int chunks = (n + CHUNK - 1) / CHUNK;
+        SplittableRandom root = new SplittableRandom(cfg.seed);
+        SplittableRandom[] rngs = new SplittableRandom[chunks];
+        for (int c = 0; c < chunks; c++) rngs[c] = root.split();
+
+        List<String> districts = new ArrayList<>(demand.keySet());
+
+        IntStream.range(0, chunks).parallel().forEach(c -> {
+            SplittableRandom rnd = rngs[c];
+            int from = c * CHUNK;
+            int to = Math.min(n, from + CHUNK);
+
+            Map<String, Double> d = new LinkedHashMap<>();
+            List<Source> srcs = new ArrayList<>(sources.size());
+
+            for (int sc = from; sc < to; sc++) {
+                double sCost = 0, sUnmet = 0, sDiesel = 0;
+
+                for (int hour : hours) {
+                    d.clear();
+                    for (String key : districts) {
+                        double base = demand.get(key);
+                        double v = base * (1.0 + cfg.demandSigma * rnd.nextGaussian());
+                        d.put(key, Math.max(0.0, v));
+                    }
+
+                    srcs.clear();
+                    for (Source s : sources) {
+                        if (rnd.nextDouble() < cfg.outageProb) continue;
+                        double cap = s.capacity * (1.0 - cfg.maxDerate * rnd.nextDouble());
+                        srcs.add(new Source(s.id, s.type, cap, s.startHour, s.endHour, s.cost));
+                    }
+
+                    HourResult r = SmartGridOptimizer.allocateHour(hour, d, srcs, flex);
+                    sCost += r.totalCost;
+                    sDiesel += r.dieselKwh;
+
+                    for (Map.Entry<String, Double> e : d.entrySet()) {
+                        double got = 0;
+                        for (double v : r.districtAlloc.get(e.getKey()).values()) got += v;
+                        sUnmet += Math.max(0.0, e.getValue() - got);
+                    }
+                }
+
+                cost[sc] = sCost;
+                unmet[sc] = sUnmet;
+                diesel[sc] = sDiesel;
+            }
+        });
+
+        long elapsed = (System.nanoTime() - start) / 1_000_000;
+        return new SimulationResult(n, hours.length, cost, unmet, diesel, elapsed);
+    }
+
+    /**
+     * Nearest-rank percentile on an already sorted array.
+     */
+    private static double percentile(double[] sorted, double p) {
+        int idx = (int) Math.ceil(p / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, idx))];
+    }
+}
@@ -0,0 +1,327 @@
+package coursework.Q4;
+
+import coursework.Q4.SmartGridOptimizer.HourResult;
+import coursework.Q4.SmartGridOptimizer.Source;
+
+import java.util.*;
+import java.util.stream.IntStream;
+
+/**
+ * @author Nishan Rai
+ * Hierarchical (regional) mode of the Smart Grid optimizer for very large grids.
+ *
+ * Problem summary:
+ * - allocateHour treats all districts and sources as one flat problem, which
+ *   gets slow once there are tens of thousands of districts.
+ * - Here districts and sources are grouped into regions. Regions are connected
+ *   by links that can carry at most a given kWh per hour.
+ *
+ * Approach:
+ * 1) Solve every region on its own with SmartGridOptimizer.allocateHour
+ *    (regions are independent, so this runs in parallel).
+ * 2) Reconcile only the boundary: each region's unmet demand is covered from
+ *    its neighbours' leftover source capacity, cheapest offer first, limited by
+ *    the link capacity. Only direct neighbours trade (one hop).
+ *
+ * Imported energy shows up in the importing district's allocation under the key
+ * "sourceId@exportingRegion".
+ *
+ * Time Complexity per hour:
+ *   Regional solves: sum of allocateHour over regions (divided across cores)
+ *   Reconciliation: O(L * S log(L * S)) for L links and S sources per region
+ * Space Complexity:
+ *   O(S + D + allocations)
+ */
+public final class RegionalGridOptimizer {
+
+    private static final double EPS = 1e-9;
+
+    private RegionalGridOptimizer() {
+    }
+
+    /**
+     * One region: its own districts and the sources physically inside it.
+     */
+    public static class Region {
+        public final String id;
+        public final Map<String, Double> demand;  // district -> demand(kWh)
+        public final List<Source> sources;
+
+        public Region(String id, Map<String, Double> demand, List<Source> sources) {
+            this.id = id;
+            this.demand = demand;
+            this.sources = sources;
+        }
+    }
+
+    /**
+     * Interconnection between two regions, usable in either direction.
+     * The limit is shared by both directions.
+     */
+    public static class Link {
+        public final String a;
+        public final String b;
+        public final double limitKwh;
+
+        public Link(String a, String b, double limitKwh) {
+            this.a = a;
+            this.b = b;
+            this.limitKwh = limitKwh;
+        }
+    }
+
+    /**
+     * Energy moved across a link in the reconciliation step.
+     */
+    public static class Transfer {
+        public final String fromRegion;
+        public final String toRegion;
+        public final String sourceId;
+        public final double kwh;
+        public final double cost;
+
+        public Transfer(String fromRegion, String toRegion, String sourceId, double kwh, double cost) {
+            this.fromRegion = fromRegion;
+            this.toRegion = toRegion;
+            this.sourceId = sourceId;
+            this.kwh = kwh;
+            this.cost = cost;
+        }
+
+        @Override
+        public String toString() {
+            return fromRegion + "->" + toRegion + " " + sourceId + " " + String.format("%.2f", kwh) + " kWh";
+        }
+    }
+
+    /**
+     * Result of a regional allocation for one hour.
+     */
+    public static class RegionalResult {
+        public final int hour;
+        public final Map<String, HourResult> regions;  // region -> local result (allocations include imports)
+        public final List<Transfer> transfers;
+        public final double totalCost;
+        public final double renewablePct;
+        public final double dieselKwh;
+        public final double unmetKwh;
+
+        public RegionalResult(int hour,
+                              Map<String, HourResult> regions,
+                              List<Transfer> transfers,
+                              double totalCost,
+                              double renewablePct,
+                              double dieselKwh,
+                              double unmetKwh) {
+            this.hour = hour;
+            this.regions = regions;
+            this.transfers = transfers;
+            this.totalCost = totalCost;
+            this.renewablePct = renewablePct;
+            this.dieselKwh = dieselKwh;
+            this.unmetKwh = unmetKwh;
+        }
+    }
+
+    /**
+     * Allocate energy for one hour, region by region.
+     *
+     * @param hour    hour of the day
+     * @param regions regions (ids must be unique)
+     * @param links   inter-region transfer limits
+     * @param flex    allowed flexibility (e.g. 0.10 means ±10%)
+     * @return RegionalResult with per-region allocations, transfers and totals
+     */
+    public static RegionalResult allocateHour(int hour,
+                                              List<Region> regions,
+                                              List<Link> links,
+                                              double flex) {
+        int r = regions.size();
+        Map<String, Integer> index = new HashMap<>();
+        for (int i = 0; i < r; i++) {
+            if (index.put(regions.get(i).id, i) != null) {
+                throw new IllegalArgumentException("Duplicate region id: " + regions.get(i).id);
+            }
+        }
+
+        // -------------------------
+        // Step 1: Independent regional solves
+        // -------------------------
+        HourResult[] local = new HourResult[r];
+        IntStream.range(0, r).parallel().forEach(i -> {
+            Region g = regions.get(i);
+            local[i] = SmartGridOptimizer.allocateHour(hour, g.demand, g.sources, flex);
+        });
+
+        // Leftover capacity per region/source and unmet demand per region
+        double[] deficit = new double[r];
+        List<List<Offer>> leftover = new ArrayList<>(r);
+        Shortfall[] shortfall = new Shortfall[r];
+
+        for (int i = 0; i < r; i++) {
+            Region g = regions.get(i);
+            Map<String, Double> used = new HashMap<>();
+
+            Shortfall sf = new Shortfall();
+            for (Map.Entry<String, Map<String, Double>> d : local[i].districtAlloc.entrySet()) {
+                double got = 0;
+                for (Map.Entry<String, Double> e : d.getValue().entrySet()) {
+                    used.merge(e.getKey(), e.getValue(), Double::sum);
+                    got += e.getValue();
+                }
+                double need = g.demand.get(d.getKey()) - got;
+                deficit[i] += Math.max(0.0, need);
+                if (need > EPS) sf.add(d.getKey(), need);
+            }
+            shortfall[i] = sf;
+
+            List<Offer> offers = new ArrayList<>();
+            for (Source s : g.sources) {
+                if (!s.available(hour)) continue;
+                double left = s.capacity - used.getOrDefault(s.id, 0.0);
+                if (left > EPS) offers.add(new Offer(i, s, left));
+            }
+            leftover.add(offers);
+        }
+
+        // --------------------------------------------------------
+        // Step 2: Boundary reconciliation (cheapest offers first)
+        // --------------------------------------------------------
+        double[] linkLeft = new double[links.size()];
+        List<Candidate> candidates = new ArrayList<>();
+
+        for (int l = 0; l < links.size(); l++) {
+            Link link = links.get(l);
+            Integer a = index.get(link.a);
+            Integer b = index.get(link.b);
+            if (a == null || b == null) {
+                throw new IllegalArgumentException("Link refers to unknown region: " + link.a + "-" + link.b);
+            }
+            linkLeft[l] = link.limitKwh;
+
+            if (deficit[b] > EPS) for (Offer o : leftover.get(a)) candidates.add(new Candidate(l, o, b));
+            if (deficit[a] > EPS) for (Offer o : leftover.get(b)) candidates.add(new Candidate(l, o, a));
+        }
+        candidates.sort(Comparator.comparingDouble(c -> c.offer.source.cost));
+
+        List<Transfer> transfers = new ArrayList<>();
+        double[] imported = new double[r];
+        for (Candidate c : candidates) {
+            int to = c.importer;
+            double amount = Math.min(deficit[to], Math.min(c.offer.left, linkLeft[c.link]));
+            if (amount <= EPS) continue;
+
+            deficit[to] -= amount;
+            c.offer.left -= amount;
+            linkLeft[c.link] -= amount;
+            imported[to] += amount;
+
+            String from = regions.get(c.offer.region).id;
+            Source s = c.offer.source;
+            transfers.add(new Transfer(from, regions.get(to).id, s.id, amount, amount * s.cost));
+            spreadImport(shortfall[to], local[to], s.id + "@" + from, amount);
+        }
+
+        // -------------------------
+        // Step 3: Compute summary
+        // -------------------------
+        double totalCost = 0.0, totalUsed = 0.0, diesel = 0.0, unmet = 0.0;
+        Map<String, HourResult> byRegion = new LinkedHashMap<>();
+
+        for (int i = 0; i < r; i++) {
+            HourResult h = local[i];
+            double used = 0;
+            for (Map<String, Double> m : h.districtAlloc.values()) for (double v : m.values()) used += v;
+
+            // local numbers only cover the region's own sources; imports are added below
+            totalCost += h.totalCost;
+            totalUsed += used - imported[i];
+            diesel += h.dieselKwh;
+            unmet += deficit[i];
+            byRegion.put(regions.get(i).id, h);
+        }
+
+        Map<String, Source> exporters = new HashMap<>();
+        for (Region g : regions) for (Source s : g.sources) exporters.put(g.id + "/" + s.id, s);
+
+        for (Transfer t : transfers) {
+            totalCost += t.cost;
+            totalUsed += t.kwh;
+            Source s = exporters.get(t.fromRegion + "/" + t.sourceId);
+            if ("Diesel".equalsIgnoreCase(s.type)) diesel += t.kwh;
+        }
+
+        double renewablePct = (totalUsed == 0) ? 0.0 : ((totalUsed - diesel) / totalUsed) * 100.0;
+
+        return new RegionalResult(hour, byRegion, transfers, totalCost, renewablePct, diesel, unmet);
+    }
+
+    /**
+     * Hand imported energy to the importing region's districts that are still short.
+     * The short districts are consumed in order with a cursor, so all imports of
+     * an hour together cost O(transfers + short districts).
+     */
+    private static void spreadImport(Shortfall sf, HourResult h, String key, double amount) {
+        while (amount > EPS && sf.cursor < sf.size) {
+            int c = sf.cursor;
+            double take = Math.min(sf.need[c], amount);
+
+            Map<String, Double> m = h.districtAlloc.get(sf.district[c]);
+            m.put(key, m.getOrDefault(key, 0.0) + take);
+            sf.need[c] -= take;
+            amount -= take;
+            if (sf.need[c] <= EPS) sf.cursor++;
+        }
+    }
+
+    /**
+     * Districts of one region still short after the regional solve, with the
+     * energy each one still needs.
+     */
+    private static class Shortfall {
+        String[] district = new String[4];
+        double[] need = new double[4];
+        int size;
+        int cursor;   // districts before it are fully served
+
+        void add(String d, double n) {
+            if (size == district.length) {
+                district = Arrays.copyOf(district, size * 2);
+                need = Arrays.copyOf(need, size * 2);
+            }
+            district[size] = d;
+            need[size] = n;
+            size++;
+        }
+    }
+
+    /**
+     * Unused capacity of one source after the regional solve.
+     */
+    private static class Offer {
+        final int region;
+        final Source source;
+        double left;
+
+        Offer(int region, Source source, double left) {
+            this.region = region;
+            this.source = source;
+            this.left = left;
+        }
+    }
+
+    /**
+     * An offer that could reach a short region over a specific link.
+     */
+    private static class Candidate {
+        final int link;
+        final Offer offer;
+        final int importer;
+
+        Candidate(int link, Offer offer, int importer) {
+            this.link = link;
+            this.offer = offer;
+            this.importer = importer;
+        }
+    }
+}
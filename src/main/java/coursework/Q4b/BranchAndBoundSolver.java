@@ -0,0 +1,228 @@
+package coursework.Q4b;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * @author Nishan Rai
+ * Exact tourist spot selection using Branch and Bound.
+ *
+ * Problem summary:
+ * - Same as the GUI: maximize total rating with cost <= budget and time <= maxTime.
+ * - When budget/time values are too large for KnapsackDPSolver's table we still
+ *   want a provably optimal answer, or at least a bounded gap.
+ *
+ * Approach:
+ * - Incumbent (best known solution) starts as the greedy rating/time pick.
+ * - Depth-first search deciding spots one by one (take / skip), in order of
+ *   rating per combined resource use.
+ * - Upper bound of a node = current rating + LP relaxation of the remaining
+ *   spots. We take the minimum of three fractional knapsack bounds:
+ *   cost only, time only, and the surrogate constraint cost/B + time/T <= 2.
+ *   Each one relaxes the real problem, so each is a valid upper bound.
+ * - A node whose bound cannot beat the incumbent is pruned.
+ *
+ * Time limit:
+ * - When the limit is hit (or the thread is interrupted) the search stops
+ *   and returns the incumbent. The bounds of all unexplored nodes give a
+ *   proven upper bound, so we also report the gap between that bound and
+ *   the returned rating.
+ *
+ * Time Complexity: O(2^n * n) worst case, usually far less due to pruning
+ * Space Complexity: O(n)
+ */
+public final class BranchAndBoundSolver {
+
+    private static final double EPS = 1e-9;
+
+    private BranchAndBoundSolver() { }
+
+    /**
+     * Result of a (possibly time-limited) solve.
+     */
+    public static class Result {
+        public final List<Spot> picked;
+        public final double rating;
+        public final int totalCost;
+        public final int totalTime;
+        public final double upperBound;  // proven: no feasible selection rates higher
+        public final double gap;         // upperBound - rating (0 when optimal)
+        public final boolean optimal;
+        public final long nodes;
+
+        public Result(List<Spot> picked, double rating, int totalCost, int totalTime,
+                      double upperBound, double gap, boolean optimal, long nodes) {
+            this.picked = picked;
+            this.rating = rating;
+            this.totalCost = totalCost;
+            this.totalTime = totalTime;
+            this.upperBound = upperBound;
+            this.gap = gap;
+            this.optimal = optimal;
+            this.nodes = nodes;
+        }
+    }
+
+    /**
+     * Solve with a time limit.
+     *
+     * @param spots       candidate spots
+     * @param budget      maximum total cost
+     * @param maxTime     maximum total time
+     * @param timeLimitMs wall-clock limit; <= 0 means no limit
+     */
+    public static Result solve(List<Spot> spots, int budget, int maxTime, long timeLimitMs) {
+        return new Search(spots, budget, maxTime, timeLimitMs).run();
+    }
+
+    /**
+     * State of one search. Spots are re-indexed in branching order.
+     */
+    private static final class Search {
+        final int budget, maxTime;
+        final long deadline;
+
+        final Spot[] items;            // useful spots in branching order
+        final int[] byCost, byTime, bySurrogate; // positions sorted by each LP ratio
+
+        final boolean[] chosen;
+        boolean[] bestChosen;           // null while the greedy seed is the incumbent
+        List<Spot> greedy;
+        double bestValue;
+
+        double openBound = Double.NEGATIVE_INFINITY;
+        boolean stopped;
+        long nodes;
+
+        Search(List<Spot> spots, int budget, int maxTime, long timeLimitMs) {
+            this.budget = budget;
+            this.maxTime = maxTime;
+            this.deadline = timeLimitMs > 0 ? System.nanoTime() + timeLimitMs * 1_000_000L : Long.MAX_VALUE;
+
+            List<Spot> useful = new ArrayList<>();
+            for (Spot s : spots) {
+                if (s.cost < 0 || s.time < 0) throw new IllegalArgumentException("Negative cost/time: " + s.name);
+                if (s.rating > 0 && s.cost <= budget && s.time <= maxTime) useful.add(s);
+            }
+            useful.sort(Comparator.comparingDouble(s -> -(s.rating / surrogate(s))));
+            items = useful.toArray(new Spot[0]);
+
+            int n = items.length;
+            byCost = order(n, i -> items[i].rating / items[i].cost);
+            byTime = order(n, i -> items[i].rating / items[i].time);
+            bySurrogate = order(n, i -> items[i].rating / surrogate(items[i]));
+
+            chosen = new boolean[n];
+
+            greedy = budget < 0 || maxTime < 0 ? List.of() : TouristSpotOptimizerGUI.greedyPick(spots, budget, maxTime);
+            bestValue = 0;
+            for (Spot s : greedy) bestValue += s.rating;
+        }
+
+        Result run() {
+            if (budget >= 0 && maxTime >= 0) branch(0, 0, 0, 0.0);
+
+            List<Spot> picked = new ArrayList<>();
+            if (bestChosen == null) picked.addAll(greedy);
+            else for (int i = 0; i < items.length; i++) if (bestChosen[i]) picked.add(items[i]);
+
+            int cost = 0, time = 0;
+            double rating = 0;
+            for (Spot s : picked) {
+                cost += s.cost;
+                time += s.time;
+                rating += s.rating;
+            }
+
+            double upper = stopped ? Math.max(rating, openBound) : rating;
+            return new Result(picked, rating, cost, time, upper, upper - rating, !stopped, nodes);
+        }
+
+        void branch(int k, int cost, int time, double value) {
+            nodes++;
+
+            if (value > bestValue + EPS) {
+                bestValue = value;
+                bestChosen = chosen.clone();
+            }
+            if (k == items.length) return;
+
+            double ub = value + bound(k, budget - cost, maxTime - time);
+            if (ub <= bestValue + EPS) return;
+
+            // check the clock (and interrupts) every 1024 nodes; afterwards just collect open bounds
+            if (stopped || ((nodes & 1023) == 0
+                    && (System.nanoTime() > deadline || Thread.currentThread().isInterrupted()))) {
+                stopped = true;
+                openBound = Math.max(openBound, ub);
+                return;
+            }
+
+            Spot s = items[k];
+            if (cost + s.cost <= budget && time + s.time <= maxTime) {
+                chosen[k] = true;
+                branch(k + 1, cost + s.cost, time + s.time, value + s.rating);
+                chosen[k] = false;
+            }
+            branch(k + 1, cost, time, value);
+        }
+
+        /**
+         * LP relaxation bound for spots k..n-1 with the given remaining resources.
+         */
+        double bound(int k, int costLeft, int timeLeft) {
+            double surLeft = 2.0 - (budget - costLeft) / (double) Math.max(1, budget)
+                    - (maxTime - timeLeft) / (double) Math.max(1, maxTime);
+
+            double b = fractional(byCost, k, costLeft, s -> s.cost);
+            b = Math.min(b, fractional(byTime, k, timeLeft, s -> s.time));
+            b = Math.min(b, fractional(bySurrogate, k, surLeft, this::surrogate));
+            return b;
+        }
+
+        /**
+         * Classic fractional knapsack over the undecided spots with one weight.
+         */
+        double fractional(int[] order, int k, double cap, Weight w) {
+            double value = 0;
+            for (int i : order) {
+                if (i < k) continue;
+                Spot s = items[i];
+                double wi = w.of(s);
+
+                if (wi <= cap) {
+                    value += s.rating;
+                    cap -= wi;
+                } else {
+                    if (cap > 0) value += s.rating * (cap / wi);
+                    break;
+                }
+            }
+            return value;
+        }
+
+        double surrogate(Spot s) {
+            return s.cost / (double) Math.max(1, budget) + s.time / (double) Math.max(1, maxTime);
+        }
+
+        private static int[] order(int n, Ratio r) {
+            Integer[] idx = new Integer[n];
+            for (int i = 0; i < n; i++) idx[i] = i;
+            Arrays.sort(idx, Comparator.comparingDouble(i -> -r.of(i)));
+
+            int[] out = new int[n];
+            for (int i = 0; i < n; i++) out[i] = idx[i];
+            return out;
+        }
+    }
+
+    private interface Weight {
+        double of(Spot s);
+    }
+
+    private interface Ratio {
+        double of(int i);
+    }
+}
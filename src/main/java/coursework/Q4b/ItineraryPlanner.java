@@ -0,0 +1,260 @@
+package coursework.Q4b;
+
+import java.util.*;
+
+/**
+ * @author Nishan Rai
+ * Multi-day itinerary planner (orienteering with several days).
+ *
+ * Problem summary:
+ * - Spots have cost, visit time and rating as before, but now travelling
+ *   between them also takes time (travel matrix).
+ * - The tourist has D days. Every day starts and ends at the hotel and has
+ *   its own time limit. The total cost of all visited spots must fit the budget.
+ * - Choose which spots to visit, on which day and in which order, to
+ *   maximize total rating.
+ *
+ * Approach (local search):
+ * - Seed: spots from greedyPick (rating/time order) are inserted one by one at
+ *   their cheapest feasible position in any day.
+ * - Then repeat until nothing improves (or the time limit is hit):
+ *   1) Insertion: add unvisited spots (best rating first) at their cheapest
+ *      feasible position.
+ *   2) 2-opt: reverse a segment of a day's route if it shortens the day.
+ *   3) Replace: swap a visited spot for an unvisited spot with higher rating
+ *      in the same position.
+ * - Every move is checked with an O(1) delta on the day's total time, so a
+ *   pass over 500 spots is cheap.
+ *
+ * Travel matrix layout:
+ * - travel[0][*] / travel[*][0] is the hotel, travel[i + 1][j + 1] is spot i -> spot j.
+ * - 2-opt deltas assume travel times are symmetric.
+ *
+ * Time Complexity per pass: O(U * P + R * L^2 + V * U) for U unvisited spots,
+ *   P route positions, R days of length L and V visited spots
+ * Space Complexity: O(n)
+ */
+public final class ItineraryPlanner {
+
+    private ItineraryPlanner() { }
+
+    /**
+     * Final plan.
+     */
+    public static class Plan {
+        public final List<List<Spot>> days;  // visiting order per day
+        public final int[] dayTime;          // travel + visit time per day
+        public final double totalRating;
+        public final int totalCost;
+        public final int iterations;
+
+        public Plan(List<List<Spot>> days, int[] dayTime, double totalRating, int totalCost, int iterations) {
+            this.days = days;
+            this.dayTime = dayTime;
+            this.totalRating = totalRating;
+            this.totalCost = totalCost;
+            this.iterations = iterations;
+        }
+    }
+
+    /**
+     * Plan a multi-day trip.
+     *
+     * @param spots       candidate spots (spot i is node i + 1 in the travel matrix)
+     * @param travel      (n + 1) x (n + 1) travel times, node 0 = hotel
+     * @param dayLimit    time limit for each day (length = number of days)
+     * @param budget      total cost limit over all days
+     * @param timeLimitMs wall-clock limit for the local search; <= 0 means no limit
+     */
+    public static Plan plan(List<Spot> spots, int[][] travel, int[] dayLimit, int budget, long timeLimitMs) {
+        int n = spots.size();
+        if (travel.length != n + 1) {
+            throw new IllegalArgumentException("travel must be (n + 1) x (n + 1), node 0 = hotel");
+        }
+        for (int[] row : travel) {
+            if (row.length != n + 1) throw new IllegalArgumentException("travel must be square");
+        }
+
+        long deadline = timeLimitMs > 0 ? System.nanoTime() + timeLimitMs * 1_000_000L : Long.MAX_VALUE;
+        State st = new State(spots, travel, dayLimit, budget);
+
+        // Seed from the greedy rating/time pick
+        long totalTime = 0;
+        for (int lim : dayLimit) totalTime += lim;
+        Map<Spot, Integer> index = new IdentityHashMap<>();
+        for (int i = 0; i < n; i++) index.put(spots.get(i), i);
+
+        List<Spot> seed = budget < 0 ? List.of()
+                : TouristSpotOptimizerGUI.greedyPick(spots, budget, (int) Math.min(Integer.MAX_VALUE, totalTime));
+        for (Spot s : seed) st.tryInsert(index.get(s));
+
+        // Candidates for insertion: best rating first
+        Integer[] byRating = new Integer[n];
+        for (int i = 0; i < n; i++) byRating[i] = i;
+        Arrays.sort(byRating, Comparator.comparingDouble(i -> -spots.get(i).rating));
+
+        int iterations = 0;
+        boolean improved = true;
+        while (improved && System.nanoTime() < deadline) {
+            iterations++;
+            improved = false;
+
+            for (int i : byRating) {
+                if (!st.visited[i] && st.tryInsert(i)) improved = true;
+            }
+            for (int d = 0; d < dayLimit.length; d++) {
+                if (st.twoOpt(d)) improved = true;
+            }
+            if (st.replace(byRating, deadline)) improved = true;
+        }
+
+        return st.toPlan(iterations);
+    }
+
+    /**
+     * Mutable routes plus cached day times.
+     */
+    private static final class State {
+        final List<Spot> spots;
+        final int[][] travel;
+        final int[] limit;
+        final int budget;
+
+        final List<List<Integer>> routes = new ArrayList<>(); // spot indices (not matrix nodes)
+        final int[] dayTime;
+        final boolean[] visited;
+        int cost;
+
+        State(List<Spot> spots, int[][] travel, int[] limit, int budget) {
+            this.spots = spots;
+            this.travel = travel;
+            this.limit = limit;
+            this.budget = budget;
+            this.dayTime = new int[limit.length];
+            this.visited = new boolean[spots.size()];
+            for (int d = 0; d < limit.length; d++) routes.add(new ArrayList<>());
+        }
+
+        /**
+         * Matrix node at position p of day d; positions -1 and size() are the hotel.
+         */
+        int node(List<Integer> r, int p) {
+            return (p < 0 || p >= r.size()) ? 0 : r.get(p) + 1;
+        }
+
+        /**
+         * Insert spot i at its cheapest feasible position; false if none exists.
+         */
+        boolean tryInsert(int i) {
+            if (visited[i]) return false;
+            Spot s = spots.get(i);
+            if (s.rating <= 0 || cost + s.cost > budget) return false;
+
+            int x = i + 1;
+            int bestDay = -1, bestPos = -1;
+            long bestDelta = Long.MAX_VALUE;
+
+            for (int d = 0; d < routes.size(); d++) {
+                List<Integer> r = routes.get(d);
+                for (int p = 0; p <= r.size(); p++) {
+                    int a = node(r, p - 1), b = node(r, p);
+                    long delta = (long) travel[a][x] + travel[x][b] - travel[a][b] + s.time;
+                    if (dayTime[d] + delta <= limit[d] && delta < bestDelta) {
+                        bestDelta = delta;
+                        bestDay = d;
+                        bestPos = p;
+                    }
+                }
+            }
+            if (bestDay < 0) return false;
+
+            routes.get(bestDay).add(bestPos, i);
+            dayTime[bestDay] += (int) bestDelta;
+            visited[i] = true;
+            cost += s.cost;
+            return true;
+        }
+
+        /**
+         * First-improvement 2-opt on one day. Returns true if the day got shorter.
+         */
+        boolean twoOpt(int d) {
+            List<Integer> r = routes.get(d);
+            boolean any = false;
+            boolean again = true;
+
+            while (again) {
+                again = false;
+                for (int i = 0; i < r.size() - 1 && !again; i++) {
+                    for (int j = i + 1; j < r.size(); j++) {
+                        int a = node(r, i - 1), b = node(r, i);
+                        int c = node(r, j), e = node(r, j + 1);
+
+                        int delta = travel[a][c] + travel[b][e] - travel[a][b] - travel[c][e];
+                        if (delta < 0) {
+                            Collections.reverse(r.subList(i, j + 1));
+                            dayTime[d] += delta;
+                            again = true;
+                            any = true;
+                            break;
+                        }
+                    }
+                }
+            }
+            return any;
+        }
+
+        /**
+         * Swap a visited spot for a better-rated unvisited one at the same position.
+         */
+        boolean replace(Integer[] byRating, long deadline) {
+            boolean any = false;
+
+            for (int d = 0; d < routes.size(); d++) {
+                List<Integer> r = routes.get(d);
+                for (int p = 0; p < r.size(); p++) {
+                    if (System.nanoTime() > deadline) return any;
+
+                    int v = r.get(p);
+                    Spot sv = spots.get(v);
+                    int a = node(r, p - 1), b = node(r, p + 1), xv = v + 1;
+                    int base = dayTime[d] - travel[a][xv] - travel[xv][b] - sv.time;
+
+                    for (int u : byRating) {
+                        Spot su = spots.get(u);
+                        if (su.rating <= sv.rating) break;   // sorted: nothing better remains
+                        if (visited[u]) continue;
+                        if (cost - sv.cost + su.cost > budget) continue;
+
+                        int xu = u + 1;
+                        long t = (long) base + travel[a][xu] + travel[xu][b] + su.time;
+                        if (t <= limit[d]) {
+                            r.set(p, u);
+                            dayTime[d] = (int) t;
+                            visited[v] = false;
+                            visited[u] = true;
+                            cost += su.cost - sv.cost;
+                            any = true;
+                            break;
+                        }
+                    }
+                }
+            }
+            return any;
+        }
+
+        Plan toPlan(int iterations) {
+            List<List<Spot>> days = new ArrayList<>();
+            double rating = 0;
+            for (List<Integer> r : routes) {
+                List<Spot> day = new ArrayList<>();
+                for (int i : r) {
+                    day.add(spots.get(i));
+                    rating += spots.get(i).rating;
+                }
+                days.add(day);
+            }
+            return new Plan(days, dayTime.clone(), rating, cost, iterations);
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package coursework.Q4b;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.function.IntConsumer;
+
+/**
+ * @author Nishan Rai
+ * Exact tourist spot selection using a 2-D 0/1 knapsack DP.
+ *
+ * Problem summary:
+ * - Pick a subset of spots maximizing total rating with
+ *   total cost <= budget and total time <= maxTime.
+ * - Brute force is O(2^n), so it only works for small n. Costs and times are
+ *   integers, so a pseudo-polynomial DP over (budget, time) is exact for any n.
+ *
+ * Approach:
+ * - best[b][t] = best rating using cost <= b and time <= t (one rolling table,
+ *   updated from high to low indices so every spot is used at most once).
+ * - For every spot we record, per cell, whether taking it improved the cell.
+ *   This is one bit per cell (a long[] bitset per spot), so the table of
+ *   choices is 64x smaller than storing the whole DP per item.
+ * - Walking the bitsets backwards from (budget, maxTime) rebuilds the picked set.
+ *
+ * Time Complexity: O(n * B * T)
+ * Space Complexity: O(B * T) doubles + O(n * B * T) bits
+ */
+public final class KnapsackDPSolver {
+
+    /**
+     * Upper bounds on the rating table (1 GiB of doubles) and on the choice
+     * bitsets (1 GiB). Larger instances should use a search instead of a table.
+     */
+    public static final long MAX_CELLS = 1L << 27;
+    public static final long MAX_CHOICE_BITS = 8L << 30;
+
+    private KnapsackDPSolver() { }
+
+    /**
+     * Result of an exact solve.
+     */
+    public static class Result {
+        public final List<Integer> picked;  // indices into the input, ascending
+        public final double rating;
+        public final int totalCost;
+        public final int totalTime;
+
+        public Result(List<Integer> picked, double rating, int totalCost, int totalTime) {
+            this.picked = picked;
+            this.rating = rating;
+            this.totalCost = totalCost;
+            this.totalTime = totalTime;
+        }
+    }
+
+    /**
+     * True if the DP tables for this instance fit within MAX_CELLS / MAX_CHOICE_BITS.
+     */
+    public static boolean fits(int n, int budget, int maxTime) {
+        if (budget < 0 || maxTime < 0) return true;
+        long cells = (budget + 1L) * (maxTime + 1L);
+        return cells <= MAX_CELLS && cells * n <= MAX_CHOICE_BITS;
+    }
+
+    /**
+     * Convenience overload for the GUI / callers holding Spot objects.
+     */
+    public static List<Spot> pick(List<Spot> spots, int budget, int maxTime) {
+        return pick(spots, budget, maxTime, done -> { });
+    }
+
+    /**
+     * Same as pick, reporting percent of spots processed (0..100).
+     *
+     * @throws CancellationException if the calling thread is interrupted
+     */
+    public static List<Spot> pick(List<Spot> spots, int budget, int maxTime, IntConsumer progress) {
+        int n = spots.size();
+        int[] cost = new int[n];
+        int[] time = new int[n];
+        double[] rating = new double[n];
+        for (int i = 0; i < n; i++) {
+            Spot s = spots.get(i);
+            cost[i] = s.cost;
+            time[i] = s.time;
+            rating[i] = s.rating;
+        }
+
+        List<Spot> pick = new ArrayList<>();
+        for (int i : solve(cost, time, rating, budget, maxTime, progress).picked) pick.add(spots.get(i));
+        return pick;
+    }
+
+    /**
+     * Exact 2-D knapsack.
+     *
+     * @param cost    cost per spot (>= 0)
+     * @param time    time per spot (>= 0)
+     * @param rating  rating per spot
+     * @param budget  maximum total cost
+     * @param maxTime maximum total time
+     */
+    public static Result solve(int[] cost, int[] time, double[] rating, int budget, int maxTime) {
+        return solve(cost, time, rating, budget, maxTime, done -> { });
+    }
+
+    /**
+     * Exact 2-D knapsack with progress reporting and cancellation.
+     *
+     * @param progress receives percent of spots processed (0..100)
+     * @throws CancellationException if the calling thread is interrupted
+     */
+    public static Result solve(int[] cost, int[] time, double[] rating, int budget, int maxTime,
+                               IntConsumer progress) {
+        int n = cost.length;
+        if (time.length != n || rating.length != n) {
+            throw new IllegalArgumentException("cost, time and rating must have the same length");
+        }
+        for (int i = 0; i < n; i++) {
+            if (cost[i] < 0 || time[i] < 0) throw new IllegalArgumentException("Negative cost/time at spot " + i);
+        }
+        if (budget < 0 || maxTime < 0) return new Result(List.of(), 0.0, 0, 0);
+        if (!fits(n, budget, maxTime)) {
+            throw new IllegalArgumentException("DP table too large for budget=" + budget + ", maxTime=" + maxTime);
+        }
+
+        int width = maxTime + 1;
+        int cells = Math.toIntExact((budget + 1L) * width);   // <= MAX_CELLS after fits()
+        int words = (cells + 63) >>> 6;
+
+        double[] best = new double[cells];
+        long[][] took = new long[n][];
+
+        int lastPct = -1;
+        for (int i = 0; i < n; i++) {
+            if (Thread.currentThread().isInterrupted()) throw new CancellationException("Knapsack DP cancelled");
+            int pct = (int) ((long) i * 100 / n);
+            if (pct != lastPct) {
+                progress.accept(pct);
+                lastPct = pct;
+            }
+
+            int c = cost[i], t = time[i];
+            double r = rating[i];
+
+            // spots that never fit or never help are skipped (no bitset needed)
+            if (c > budget || t > maxTime || r <= 0) continue;
+
+            long[] bits = new long[words];
+            took[i] = bits;
+
+            int shift = c * width + t;
+            for (int b = budget; b >= c; b--) {
+                int row = b * width;
+                for (int tt = maxTime; tt >= t; tt--) {
+                    int cell = row + tt;
+                    double cand = best[cell - shift] + r;
+                    if (cand > best[cell]) {
+                        best[cell] = cand;
+                        bits[cell >>> 6] |= 1L << cell;
+                    }
+                }
+            }
+        }
+
+        // Rebuild the choice from the last spot backwards
+        boolean[] chosen = new boolean[n];
+        int b = budget, tt = maxTime;
+        int totalCost = 0, totalTime = 0;
+        double totalRating = 0;
+
+        for (int i = n - 1; i >= 0; i--) {
+            long[] bits = took[i];
+            if (bits == null) continue;
+
+            int cell = b * width + tt;
+            if ((bits[cell >>> 6] & (1L << cell)) != 0) {
+                chosen[i] = true;
+                b -= cost[i];
+                tt -= time[i];
+                totalCost += cost[i];
+                totalTime += time[i];
+                totalRating += rating[i];
+            }
+        }
+
+        List<Integer> picked = new ArrayList<>();
+        for (int i = 0; i < n; i++) if (chosen[i]) picked.add(i);
+
+        return new Result(picked, totalRating, totalCost, totalTime);
+    }
+}
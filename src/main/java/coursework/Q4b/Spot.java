@@ -0,0 +1,25 @@
+package coursework.Q4b;
+
+/**
+ * Data model for a tourist spot.
+ *
+ * Shared by the Swing GUI and the headless solvers in this package.
+ */
+public final class Spot {
+    public final String name;
+    public final int cost;
+    public final int time;
+    public final double rating;
+
+    public Spot(String name, int cost, int time, double rating) {
+        this.name = name;
+        this.cost = cost;
+        this.time = time;
+        this.rating = rating;
+    }
+
+    @Override
+    public String toString() {
+        return name + " (cost=" + cost + ", time=" + time + ", rating=" + rating + ")";
+    }
+}
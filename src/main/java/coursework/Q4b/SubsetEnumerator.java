@@ -0,0 +1,216 @@
+package coursework.Q4b;
+
+import java.util.Arrays;
+import java.util.concurrent.CancellationException;
+import java.util.stream.IntStream;
+
+/**
+ * @author Nishan Rai
+ * Exact subset enumeration for the tourist spot problem (up to 40 spots).
+ *
+ * Problem summary:
+ * - The original brute force recomputes cost/time/rating from scratch for each
+ *   of the 2^n masks: O(n * 2^n), which stops being interactive around n = 25.
+ *
+ * Approach (meet in the middle):
+ * 1) Split the spots into two halves of at most 20 each.
+ * 2) Enumerate all subsets of each half in Gray-code order: consecutive codes
+ *    differ by one bit, so totals are updated in O(1) per subset. The code
+ *    space is cut into chunks that run in parallel; each chunk computes its
+ *    starting totals directly and then walks its Gray codes.
+ * 3) Combine: for every feasible right-half subset we need the best left-half
+ *    subset with cost <= budget - cR and time <= maxTime - tR. Sorting the
+ *    left side by cost and the right side by remaining budget turns this into
+ *    a sweep where left subsets are inserted into a Fenwick tree (prefix max
+ *    over compressed time) and each right subset is one prefix query.
+ *
+ * Time Complexity: O(2^(n/2) * n/2) for enumeration + O(2^(n/2) log 2^(n/2)) combine
+ * Space Complexity: O(2^(n/2))
+ */
+public final class SubsetEnumerator {
+
+    public static final int MAX_N = 40;
+
+    private static final int CHUNK_BITS = 12;
+
+    private SubsetEnumerator() { }
+
+    /**
+     * Best subset as a bit mask over the input order (bit i = spot i).
+     * Returns 0 (empty selection) when nothing fits.
+     *
+     * @throws CancellationException if the calling thread is interrupted
+     */
+    public static long bestMask(int[] cost, int[] time, double[] rating, int budget, int maxTime) {
+        int n = cost.length;
+        if (n > MAX_N) throw new IllegalArgumentException("At most " + MAX_N + " spots, got " + n);
+        if (budget < 0 || maxTime < 0) return 0L;
+
+        Thread caller = Thread.currentThread();
+        int h1 = n / 2;
+        int h2 = n - h1;
+
+        Half left = enumerate(cost, time, rating, 0, h1, caller);
+        Half right = enumerate(cost, time, rating, h1, h2, caller);
+
+        // Left side: feasible subsets sorted by cost (cost in the high bits, index in the low bits)
+        long[] byCost = feasibleKeys(left, budget, maxTime, false);
+        long[] byRoom = feasibleKeys(right, budget, maxTime, true);
+
+        // Compress left-side times for the Fenwick tree
+        long[] times = new long[byCost.length];
+        for (int i = 0; i < byCost.length; i++) times[i] = left.time[(int) byCost[i]];
+        Arrays.parallelSort(times);
+        int m = unique(times);
+
+        double[] treeBest = new double[m + 1];
+        int[] treeIdx = new int[m + 1];
+        Arrays.fill(treeBest, Double.NEGATIVE_INFINITY);
+
+        double best = Double.NEGATIVE_INFINITY;
+        long bestMask = 0L;
+        int next = 0;
+
+        for (long q : byRoom) {
+            int ri = (int) q;
+            long room = q >>> 32;
+
+            // insert every left subset whose cost fits in the remaining budget
+            while (next < byCost.length && (byCost[next] >>> 32) <= room) {
+                int li = (int) byCost[next++];
+                int pos = Arrays.binarySearch(times, 0, m, left.time[li]) + 1;
+                for (int x = pos; x <= m; x += x & -x) {
+                    if (left.rating[li] > treeBest[x]) {
+                        treeBest[x] = left.rating[li];
+                        treeIdx[x] = li;
+                    }
+                }
+            }
+
+            // best left subset with time <= maxTime - tR
+            long timeRoom = maxTime - right.time[ri];
+            int pos = upperBound(times, m, timeRoom);
+            double got = Double.NEGATIVE_INFINITY;
+            int gotIdx = -1;
+            for (int x = pos; x > 0; x -= x & -x) {
+                if (treeBest[x] > got) {
+                    got = treeBest[x];
+                    gotIdx = treeIdx[x];
+                }
+            }
+
+            if (gotIdx >= 0 && got + right.rating[ri] > best) {
+                best = got + right.rating[ri];
+                bestMask = ((long) ri << h1) | gotIdx;
+            }
+        }
+
+        if (caller.isInterrupted()) throw new CancellationException("Subset enumeration cancelled");
+        return bestMask;
+    }
+
+    /**
+     * Totals of every subset of one half, indexed by the subset's bit mask.
+     */
+    private static final class Half {
+        final long[] cost;
+        final long[] time;
+        final double[] rating;
+
+        Half(int size) {
+            cost = new long[size];
+            time = new long[size];
+            rating = new double[size];
+        }
+    }
+
+    private static Half enumerate(int[] cost, int[] time, double[] rating, int from, int len, Thread caller) {
+        int size = 1 << len;
+        Half h = new Half(size);
+
+        int chunkBits = Math.min(CHUNK_BITS, len);
+        int chunks = size >>> chunkBits;
+
+        IntStream.range(0, chunks).parallel().forEach(c -> {
+            if (caller.isInterrupted()) throw new CancellationException("Subset enumeration cancelled");
+
+            int start = c << chunkBits;
+            int end = start + (1 << chunkBits);
+
+            // totals for the first Gray code of the chunk, computed directly
+            int g = start ^ (start >>> 1);
+            long cs = 0, ts = 0;
+            double rs = 0;
+            for (int i = 0; i < len; i++) {
+                if ((g & (1 << i)) != 0) {
+                    cs += cost[from + i];
+                    ts += time[from + i];
+                    rs += rating[from + i];
+                }
+            }
+            h.cost[g] = cs;
+            h.time[g] = ts;
+            h.rating[g] = rs;
+
+            // each further code flips exactly one bit: O(1) update
+            for (int k = start + 1; k < end; k++) {
+                int bit = Integer.numberOfTrailingZeros(k);
+                int j = from + bit;
+                g ^= 1 << bit;
+
+                if ((g & (1 << bit)) != 0) {
+                    cs += cost[j];
+                    ts += time[j];
+                    rs += rating[j];
+                } else {
+                    cs -= cost[j];
+                    ts -= time[j];
+                    rs -= rating[j];
+                }
+                h.cost[g] = cs;
+                h.time[g] = ts;
+                h.rating[g] = rs;
+            }
+        });
+        return h;
+    }
+
+    /**
+     * Sorted keys of the feasible subsets: (cost or remaining budget) << 32 | index.
+     */
+    private static long[] feasibleKeys(Half h, int budget, int maxTime, boolean room) {
+        int size = h.cost.length;
+        long[] keys = new long[size];
+        int k = 0;
+        for (int i = 0; i < size; i++) {
+            if (h.cost[i] <= budget && h.time[i] <= maxTime) {
+                long v = room ? budget - h.cost[i] : h.cost[i];
+                keys[k++] = (v << 32) | i;
+            }
+        }
+        keys = Arrays.copyOf(keys, k);
+        Arrays.parallelSort(keys);
+        return keys;
+    }
+
+    private static int unique(long[] a) {
+        int m = 0;
+        for (int i = 0; i < a.length; i++) {
+            if (m == 0 || a[m - 1] != a[i]) a[m++] = a[i];
+        }
+        return m;
+    }
+
+    /**
+     * Number of values in a[0..m) that are <= x.
+     */
+    private static int upperBound(long[] a, int m, long x) {
+        int lo = 0, hi = m;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (a[mid] <= x) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+}
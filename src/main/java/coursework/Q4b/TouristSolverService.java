@@ -0,0 +1,143 @@
+package coursework.Q4b;
+
+import java.util.*;
+import java.util.concurrent.CancellationException;
+
+/**
+ * @author Nishan Rai
+ * Background solving service for the Tourist Spot Optimizer.
+ *
+ * Responsibilities:
+ * - Run the heuristic and the exact solvers for one input (no Swing code here,
+ *   so it can be called from a SwingWorker, a plain thread or a test harness).
+ * - Report progress as a percentage while the exact solvers run.
+ * - Stop early when the calling thread is interrupted (cancel button).
+ * - Cache reports keyed by the spot list plus budget/maxTime, so re-running
+ *   unchanged inputs returns instantly.
+ *
+ * The cache is a small LRU (LinkedHashMap in access order) guarded by the
+ * service's monitor.
+ */
+public final class TouristSolverService {
+
+    // Brute force is only shown as a cross-check for small inputs
+    static final int BRUTE_FORCE_CHECK_N = SubsetEnumerator.MAX_N;
+    static final long BB_TIME_LIMIT_MS = 2000;
+
+    private static final int CACHE_SIZE = 32;
+
+    /**
+     * Progress callback: percent in 0..100 plus a short stage label.
+     */
+    public interface Listener {
+        void progress(int percent, String stage);
+    }
+
+    /**
+     * Everything the GUI prints for one run.
+     */
+    public static class Report {
+        public final List<Spot> greedy;
+        public final String exactLabel;
+        public final List<Spot> exact;
+        public final List<Spot> bruteForce;  // null when n is too large for the check
+        public final long elapsedMs;
+
+        public Report(List<Spot> greedy, String exactLabel, List<Spot> exact,
+                      List<Spot> bruteForce, long elapsedMs) {
+            this.greedy = greedy;
+            this.exactLabel = exactLabel;
+            this.exact = exact;
+            this.bruteForce = bruteForce;
+            this.elapsedMs = elapsedMs;
+        }
+    }
+
+    private final Map<List<Object>, Report> cache = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<List<Object>, Report> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
+    /**
+     * Cached report for this input, or null.
+     */
+    public synchronized Report cached(List<Spot> spots, int budget, int maxTime) {
+        return cache.get(key(spots, budget, maxTime));
+    }
+
+    /**
+     * Solve (or return the cached report). Runs on the calling thread.
+     *
+     * @throws CancellationException if the calling thread is interrupted
+     */
+    public Report solve(List<Spot> spots, int budget, int maxTime, Listener listener) {
+        List<Object> key = key(spots, budget, maxTime);
+        synchronized (this) {
+            Report hit = cache.get(key);
+            if (hit != null) {
+                listener.progress(100, "cached");
+                return hit;
+            }
+        }
+
+        long start = System.nanoTime();
+        boolean bruteCheck = spots.size() <= BRUTE_FORCE_CHECK_N;
+
+        // progress split: exact solver 0..80 (or 0..100), brute force 80..100
+        int exactSpan = bruteCheck ? 80 : 100;
+
+        listener.progress(0, "greedy");
+        List<Spot> greedy = TouristSpotOptimizerGUI.greedyPick(spots, budget, maxTime);
+        checkCancelled();
+
+        String label;
+        List<Spot> exact;
+        if (KnapsackDPSolver.fits(spots.size(), budget, maxTime)) {
+            listener.progress(0, "knapsack DP");
+            exact = KnapsackDPSolver.pick(spots, budget, maxTime,
+                    done -> listener.progress(done * exactSpan / 100, "knapsack DP"));
+            label = "Exact (2-D knapsack DP)";
+        } else {
+            listener.progress(0, "branch and bound");
+            BranchAndBoundSolver.Result bb =
+                    BranchAndBoundSolver.solve(spots, budget, maxTime, BB_TIME_LIMIT_MS);
+            exact = bb.picked;
+            label = "Branch and Bound (" + (bb.optimal ? "optimal" :
+                    "time limit, gap=" + String.format("%.2f", bb.gap)) + ")";
+        }
+        checkCancelled();
+
+        List<Spot> brute = null;
+        if (bruteCheck) {
+            listener.progress(exactSpan, "brute force");
+            brute = TouristSpotOptimizerGUI.bruteForcePick(spots, budget, maxTime);
+            checkCancelled();
+        }
+
+        Report report = new Report(greedy, label, exact, brute, (System.nanoTime() - start) / 1_000_000);
+        synchronized (this) {
+            cache.put(key, report);
+        }
+        listener.progress(100, "done");
+        return report;
+    }
+
+    static void checkCancelled() {
+        if (Thread.currentThread().isInterrupted()) throw new CancellationException("Solver cancelled");
+    }
+
+    private static List<Object> key(List<Spot> spots, int budget, int maxTime) {
+        List<Object> k = new ArrayList<>(2 + spots.size() * 4);
+        k.add(budget);
+        k.add(maxTime);
+        for (Spot s : spots) {
+            k.add(s.name);
+            k.add(s.cost);
+            k.add(s.time);
+            k.add(s.rating);
+        }
+        return k;
+    }
+}
@@ -6,6 +6,8 @@ import java.awt.*;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
 
 /**
  * Tourist Spot Optimizer GUI (Swing).
@@ -25,29 +27,22 @@ import java.util.List;
  * Brute force:
  * - Try all subsets (only feasible if number of spots is small).
  *
+ * Exact DP:
+ * - 2-D knapsack over (budget, time), see KnapsackDPSolver.
+ * - If the table would be too large, BranchAndBoundSolver is used instead.
+ *
+ * Threading:
+ * - Solving runs in a SwingWorker (via TouristSolverService), never on the EDT.
+ * - The Cancel button interrupts the running job; unchanged inputs are served
+ *   from the service's cache.
+ *
  * Time Complexity:
  * - Greedy: O(n log n)
- * - Brute force: O(2^n) (only for small n)
+ * - Brute force: O(n * 2^(n/2)) meet in the middle (only for small n)
+ * - Exact DP: O(n * budget * maxTime)
  */
 public final class TouristSpotOptimizerGUI extends JFrame {
 
-    /**
-     * Data model for a tourist spot.
-     */
-    private static class Spot {
-        String name;
-        int cost;
-        int time;
-        double rating;
-
-        Spot(String name, int cost, int time, double rating) {
-            this.name = name;
-            this.cost = cost;
-            this.time = time;
-            this.rating = rating;
-        }
-    }
-
     private final DefaultTableModel model =
             new DefaultTableModel(new Object[]{"Name", "Cost", "Time", "Rating"}, 0);
     private final JTable table = new JTable(model);
@@ -62,6 +57,13 @@ public final class TouristSpotOptimizerGUI extends JFrame {
 
     private final JTextArea output = new JTextArea(12, 45);
 
+    private final JButton runBtn = new JButton("Run Optimizer");
+    private final JButton cancelBtn = new JButton("Cancel");
+    private final JProgressBar progress = new JProgressBar(0, 100);
+
+    private final TouristSolverService solver = new TouristSolverService();
+    private SwingWorker<TouristSolverService.Report, Void> job;
+
     public TouristSpotOptimizerGUI() {
         super("Tourist Spot Optimizer (Heuristic vs Brute Force)");
         setDefaultCloseOperation(EXIT_ON_CLOSE);
@@ -82,10 +84,16 @@ public final class TouristSpotOptimizerGUI extends JFrame {
         mid.add(new JLabel("Budget:")); mid.add(budgetF);
         mid.add(new JLabel("Max Time:")); mid.add(maxTimeF);
 
-        JButton runBtn = new JButton("Run Optimizer");
         runBtn.addActionListener(e -> runOptimizer());
         mid.add(runBtn);
 
+        cancelBtn.setEnabled(false);
+        cancelBtn.addActionListener(e -> cancelOptimizer());
+        mid.add(cancelBtn);
+
+        progress.setStringPainted(true);
+        mid.add(progress);
+
         // --- Output area
         output.setEditable(false);
 
@@ -143,25 +151,89 @@ public final class TouristSpotOptimizerGUI extends JFrame {
     }
 
     private void runOptimizer() {
+        int budget, maxTime;
+        List<Spot> spots;
         try {
-            int budget = Integer.parseInt(budgetF.getText().trim());
-            int maxTime = Integer.parseInt(maxTimeF.getText().trim());
+            budget = Integer.parseInt(budgetF.getText().trim());
+            maxTime = Integer.parseInt(maxTimeF.getText().trim());
+            spots = readSpots();
+        } catch (Exception ex) {
+            JOptionPane.showMessageDialog(this, "Invalid budget/maxTime values.");
+            return;
+        }
 
-            List<Spot> spots = readSpots();
+        cancelOptimizer();
 
-            List<Spot> greedy = greedyPick(spots, budget, maxTime);
-            List<Spot> exact = bruteForcePick(spots, budget, maxTime);
+        // Unchanged inputs: answer straight from the cache, no worker needed
+        TouristSolverService.Report hit = solver.cached(spots, budget, maxTime);
+        if (hit != null) {
+            progress.setValue(100);
+            progress.setString("cached");
+            printReport(hit, budget, maxTime, true);
+            return;
+        }
 
-            output.setText("");
-            output.append("Heuristic (Greedy by rating/time):\n");
-            printList(greedy, budget, maxTime);
+        output.setText("Solving " + spots.size() + " spots...\n");
+        runBtn.setEnabled(false);
+        cancelBtn.setEnabled(true);
+
+        job = new SwingWorker<>() {
+            @Override
+            protected TouristSolverService.Report doInBackground() {
+                return solver.solve(spots, budget, maxTime, (pct, stage) ->
+                        SwingUtilities.invokeLater(() -> {
+                            progress.setValue(pct);
+                            progress.setString(stage + " " + pct + "%");
+                        }));
+            }
 
-            output.append("\nBrute Force (Optimal, for small n):\n");
-            printList(exact, budget, maxTime);
+            @Override
+            protected void done() {
+                if (job != this) return;  // superseded by a newer run
+                runBtn.setEnabled(true);
+                cancelBtn.setEnabled(false);
+                job = null;
+
+                try {
+                    printReport(get(), budget, maxTime, false);
+                } catch (CancellationException ex) {
+                    output.append("Cancelled.\n");
+                    progress.setString("cancelled");
+                } catch (InterruptedException | ExecutionException ex) {
+                    Throwable cause = ex.getCause() != null ? ex.getCause() : ex;
+                    output.append(cause instanceof CancellationException
+                            ? "Cancelled.\n" : "Solver failed: " + cause.getMessage() + "\n");
+                }
+            }
+        };
+        job.execute();
+    }
 
-        } catch (Exception ex) {
-            JOptionPane.showMessageDialog(this, "Invalid budget/maxTime values.");
+    private void cancelOptimizer() {
+        if (job != null) {
+            SwingWorker<?, ?> old = job;
+            job = null;
+            old.cancel(true);
+            runBtn.setEnabled(true);
+            cancelBtn.setEnabled(false);
+            progress.setString("cancelled");
+        }
+    }
+
+    private void printReport(TouristSolverService.Report r, int budget, int maxTime, boolean fromCache) {
+        output.setText("");
+        output.append("Heuristic (Greedy by rating/time):\n");
+        printList(r.greedy, budget, maxTime);
+
+        output.append("\n" + r.exactLabel + ":\n");
+        printList(r.exact, budget, maxTime);
+
+        if (r.bruteForce != null) {
+            output.append("\nBrute Force (Optimal, for small n):\n");
+            printList(r.bruteForce, budget, maxTime);
         }
+
+        output.append("\nSolve time: " + r.elapsedMs + " ms" + (fromCache ? " (cached)" : "") + "\n");
     }
 
     private void printList(List<Spot> list, int budget, int maxTime) {
@@ -184,7 +256,7 @@ public final class TouristSpotOptimizerGUI extends JFrame {
      * Greedy heuristic:
      * Sort spots by rating/time ratio (high to low), then pick if it fits.
      */
-    private List<Spot> greedyPick(List<Spot> spots, int budget, int maxTime) {
+    static List<Spot> greedyPick(List<Spot> spots, int budget, int maxTime) {
         List<Spot> sorted = new ArrayList<>(spots);
         sorted.sort(Comparator.comparingDouble(s -> -(s.rating / s.time)));
 
@@ -205,42 +277,33 @@ public final class TouristSpotOptimizerGUI extends JFrame {
     /**
      * Brute force (exact):
      * Try all subsets and choose the one with max rating under constraints.
+     * Subsets are enumerated meet-in-the-middle with Gray-code updates
+     * (see SubsetEnumerator), which keeps n <= 40 interactive.
      * If n is too large, fallback to greedy to avoid explosion.
      */
-    private List<Spot> bruteForcePick(List<Spot> spots, int budget, int maxTime) {
+    static List<Spot> bruteForcePick(List<Spot> spots, int budget, int maxTime) {
         int n = spots.size();
-        if (n > 25) return greedyPick(spots, budget, maxTime);
-
-        double bestRating = -1;
-        int bestMask = 0;
+        if (n > SubsetEnumerator.MAX_N) return greedyPick(spots, budget, maxTime);
 
-        for (int mask = 0; mask < (1 << n); mask++) {
-            int cost = 0, time = 0;
-            double rating = 0;
-
-            for (int i = 0; i < n; i++) {
-                if ((mask & (1 << i)) != 0) {
-                    Spot s = spots.get(i);
-                    cost += s.cost;
-                    time += s.time;
-                    rating += s.rating;
-
-                    if (cost > budget || time > maxTime) break;
-                }
-            }
-
-            if (cost <= budget && time <= maxTime && rating > bestRating) {
-                bestRating = rating;
-                bestMask = mask;
-            }
+        int[] cost = new int[n];
+        int[] time = new int[n];
+        double[] rating = new double[n];
+        for (int i = 0; i < n; i++) {
+            Spot s = spots.get(i);
+            cost[i] = s.cost;
+            time[i] = s.time;
+            rating[i] = s.rating;
         }
 
+        long bestMask = SubsetEnumerator.bestMask(cost, time, rating, budget, maxTime);
+
         List<Spot> pick = new ArrayList<>();
         for (int i = 0; i < n; i++) {
-            if ((bestMask & (1 << i)) != 0) pick.add(spots.get(i));
+            if ((bestMask & (1L << i)) != 0) pick.add(spots.get(i));
         }
         return pick;
     }
+
     public static void main(String[] args) {
         SwingUtilities.invokeLater(() -> new TouristSpotOptimizerGUI().setVisible(true));
     }
@@ -0,0 +1,123 @@
+package coursework.Q5;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * @author Nishan Rai
+ * Per-request latency breakdown for weather fetches.
+ *
+ * Phases (one histogram each):
+ * - QUEUE: waiting for the rate limiter and a concurrency permit.
+ * - TTFB:  request sent -> response headers received. HttpClient does not
+ *          report DNS/connect separately, so they are included here (they are
+ *          only paid on a new connection; reused HTTP/2 connections skip them).
+ * - BODY:  time blocked reading the response body from the network.
+ * - PARSE: time spent in the JSON reader itself (parse time minus BODY).
+ * - TOTAL: whole request including retries and backoff sleeps.
+ *
+ * Summaries show p50/p95/p99; export writes a CSV with the summary rows
+ * followed by every non-empty bucket, for offline analysis.
+ */
+public final class FetchMetrics {
+
+    public enum Phase { QUEUE, TTFB, BODY, PARSE, TOTAL }
+
+    private final Map<Phase, LatencyHistogram> histograms = new EnumMap<>(Phase.class);
+
+    public FetchMetrics() {
+        for (Phase p : Phase.values()) histograms.put(p, new LatencyHistogram());
+    }
+
+    public void record(Phase phase, long nanos) {
+        histograms.get(phase).recordNanos(nanos);
+    }
+
+    public LatencyHistogram histogram(Phase phase) {
+        return histograms.get(phase);
+    }
+
+    public void reset() {
+        for (LatencyHistogram h : histograms.values()) h.reset();
+    }
+
+    /**
+     * Multi-line p50/p95/p99 summary in milliseconds for the GUI log.
+     */
+    public String summary() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%-6s %7s %9s %9s %9s %9s%n", "phase", "count", "p50(ms)", "p95(ms)", "p99(ms)", "max(ms)"));
+        for (Phase p : Phase.values()) {
+            LatencyHistogram h = histograms.get(p);
+            sb.append(String.format("%-6s %7d %9.2f %9.2f %9.2f %9.2f%n", p, h.count(),
+                    h.percentileMicros(50) / 1000.0, h.percentileMicros(95) / 1000.0,
+                    h.percentileMicros(99) / 1000.0, h.maxMicros() / 1000.0));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Write all histograms as CSV.
+     */
+    public void export(Path file) throws IOException {
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8))) {
+            out.println("phase,count,mean_us,p50_us,p90_us,p95_us,p99_us,p999_us,max_us");
+            for (Phase p : Phase.values()) {
+                LatencyHistogram h = histograms.get(p);
+                out.printf("%s,%d,%.1f,%d,%d,%d,%d,%d,%d%n", p, h.count(), h.meanMicros(),
+                        h.percentileMicros(50), h.percentileMicros(90), h.percentileMicros(95),
+                        h.percentileMicros(99), h.percentileMicros(99.9), h.maxMicros());
+            }
+
+            out.println();
+            out.println("phase,bucket_low_us,bucket_high_us,count");
+            for (Phase p : Phase.values()) {
+                LatencyHistogram h = histograms.get(p);
+                for (int i = 0; i < h.buckets(); i++) {
+                    long c = h.bucketCount(i);
+                    if (c == 0) continue;
+                    out.printf("%s,%d,%d,%d%n", p, LatencyHistogram.lowestEquivalent(i),
+                            LatencyHistogram.highestEquivalent(i), c);
+                }
+            }
+        }
+    }
+
+    /**
+     * Input stream that adds up the time spent blocked in read calls.
+     */
+    static final class TimedInputStream extends FilterInputStream {
+        long readNanos;
+
+        TimedInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            long t = System.nanoTime();
+            try {
+                return super.read();
+            } finally {
+                readNanos += System.nanoTime() - t;
+            }
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            long t = System.nanoTime();
+            try {
+                return super.read(b, off, len);
+            } finally {
+                readNanos += System.nanoTime() - t;
+            }
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package coursework.Q5;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * @author Nishan Rai
+ * Lock-free latency histogram with log-linear buckets (HdrHistogram style).
+ *
+ * Bucketing (values in microseconds):
+ * - 0..255 us: one bucket per microsecond.
+ * - Above that, every power of two is split into 128 equal sub-buckets,
+ *   so any recorded value is off by less than 1/128 (~0.8%).
+ * - Values are capped at 2^40 us (about 12 days).
+ *
+ * Recording is one atomic increment, so many fetch threads can record at
+ * the same time without locking. Percentiles walk the ~4.5k buckets.
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BITS = 7;
+    private static final int SUB = 1 << SUB_BITS;      // 128 sub-buckets per power of two
+    private static final int LINEAR = SUB * 2;         // 0..255 stored exactly
+    private static final int MAX_EXP = 40 - SUB_BITS;  // values up to 2^40
+    private static final long MAX_VALUE = (1L << 40) - 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(LINEAR + MAX_EXP * SUB);
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Record one latency given in nanoseconds.
+     */
+    public void recordNanos(long nanos) {
+        long us = Math.max(0, Math.min(MAX_VALUE, nanos / 1_000));
+        counts.incrementAndGet(index(us));
+        total.incrementAndGet();
+        sum.addAndGet(us);
+        max.accumulateAndGet(us, Math::max);
+    }
+
+    public long count() {
+        return total.get();
+    }
+
+    public long maxMicros() {
+        return max.get();
+    }
+
+    public double meanMicros() {
+        long n = total.get();
+        return n == 0 ? 0.0 : sum.get() / (double) n;
+    }
+
+    /**
+     * Value (microseconds) at or below which p percent of recordings fall.
+     */
+    public long percentileMicros(double p) {
+        long n = total.get();
+        if (n == 0) return 0;
+
+        long target = Math.max(1, (long) Math.ceil(p / 100.0 * n));
+        long seen = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            seen += counts.get(i);
+            if (seen >= target) return Math.min(highestEquivalent(i), max.get());
+        }
+        return max.get();
+    }
+
+    /**
+     * Number of buckets (for export).
+     */
+    public int buckets() {
+        return counts.length();
+    }
+
+    /**
+     * Count in bucket i (for export).
+     */
+    public long bucketCount(int i) {
+        return counts.get(i);
+    }
+
+    /**
+     * Smallest value (microseconds) that falls into bucket i.
+     */
+    public static long lowestEquivalent(int i) {
+        if (i < LINEAR) return i;
+        int e = (i - LINEAR) / SUB + 1;
+        long m = (i - LINEAR) % SUB + SUB;
+        return m << e;
+    }
+
+    /**
+     * Largest value (microseconds) that falls into bucket i.
+     */
+    public static long highestEquivalent(int i) {
+        if (i < LINEAR) return i;
+        int e = (i - LINEAR) / SUB + 1;
+        long m = (i - LINEAR) % SUB + SUB;
+        return ((m + 1) << e) - 1;
+    }
+
+    public void reset() {
+        for (int i = 0; i < counts.length(); i++) counts.set(i, 0);
+        total.set(0);
+        sum.set(0);
+        max.set(0);
+    }
+
+    private static int index(long us) {
+        if (us < LINEAR) return (int) us;
+        int e = 63 - Long.numberOfLeadingZeros(us) - SUB_BITS;  // >= 1 here
+        int m = (int) (us >>> e);                                // in [SUB, 2 * SUB)
+        return LINEAR + (e - 1) * SUB + (m - SUB);
+    }
+}
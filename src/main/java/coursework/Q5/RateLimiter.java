@@ -0,0 +1,97 @@
+package coursework.Q5;
+
+import java.time.Duration;
+
+/**
+ * @author Nishan Rai
+ * Adaptive token-bucket rate limiter for API calls.
+ *
+ * Design:
+ * - Token bucket: tokens refill at `rate` per second up to `burst`; every
+ *   request takes one token and waits if none is available.
+ * - AIMD adaptation: a throttled response (HTTP 429) halves the rate and
+ *   pauses everyone until Retry-After; each success adds back a small step
+ *   until the configured maximum is reached again.
+ *
+ * This keeps throughput close to the quota without repeatedly tripping it.
+ */
+public final class RateLimiter {
+
+    private final double maxRate;
+    private final double minRate;
+    private final double burst;
+
+    private double rate;
+    private double tokens;
+    private long lastRefill;
+    private long pausedUntil;
+
+    /**
+     * @param maxRate requests per second when nothing is throttled
+     * @param burst   maximum tokens saved up while idle (>= 1)
+     */
+    public RateLimiter(double maxRate, double burst) {
+        if (maxRate <= 0) throw new IllegalArgumentException("maxRate must be positive");
+        if (burst < 1) throw new IllegalArgumentException("burst must be at least 1");
+        this.maxRate = maxRate;
+        this.minRate = maxRate / 64;
+        this.burst = burst;
+        this.rate = maxRate;
+        this.tokens = burst;
+        this.lastRefill = System.nanoTime();
+        this.pausedUntil = lastRefill;   // nanoTime may be negative, so not 0
+    }
+
+    /**
+     * Block until a token is available.
+     */
+    public void acquire() throws InterruptedException {
+        long waitNanos;
+        while ((waitNanos = tryTake()) > 0) {
+            Thread.sleep(waitNanos / 1_000_000, (int) (waitNanos % 1_000_000));
+        }
+    }
+
+    /**
+     * Take a token if possible; otherwise return how long to wait (nanoseconds).
+     */
+    synchronized long tryTake() {
+        long now = System.nanoTime();
+        if (now < pausedUntil) return pausedUntil - now;
+
+        // nothing refills during a pause: count only the time since it ended
+        long from = Math.max(lastRefill, pausedUntil);
+        tokens = Math.min(burst, tokens + Math.max(0, now - from) / 1e9 * rate);
+        lastRefill = now;
+
+        if (tokens >= 1) {
+            tokens -= 1;
+            return 0;
+        }
+        return Math.max(1, (long) ((1 - tokens) / rate * 1e9));
+    }
+
+    /**
+     * The server said "too many requests": slow down and pause.
+     *
+     * @param retryAfter server-suggested pause, or null if none was given
+     */
+    public synchronized void onThrottled(Duration retryAfter) {
+        rate = Math.max(minRate, rate / 2);
+        tokens = 0;
+        if (retryAfter != null) {
+            pausedUntil = Math.max(pausedUntil, System.nanoTime() + retryAfter.toNanos());
+        }
+    }
+
+    /**
+     * A request went through: creep back towards the maximum rate.
+     */
+    public synchronized void onSuccess() {
+        rate = Math.min(maxRate, rate + maxRate / 20);
+    }
+
+    public synchronized double currentRate() {
+        return rate;
+    }
+}
@@ -1,21 +1,19 @@
 package coursework.Q5;
 
-import com.google.gson.JsonArray;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonParser;
-
 import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
-import java.net.URI;
-import java.net.URLEncoder;
-import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
-import java.nio.charset.StandardCharsets;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.text.SimpleDateFormat;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
-import java.util.concurrent.*;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * @author Nishan Rai
@@ -32,16 +30,41 @@ import java.util.concurrent.*;
  *
  * Time Complexity:
  * - Sequential: O(n) network calls in series
- * - Multithreaded: O(n) calls in parallel (faster wall-time)
+ * - Multithreaded: O(n) calls in parallel (faster wall-time), O(n / 20)
+ *   group calls once the city IDs are known
  *
  * Note:
  * - Must update Swing UI on the Event Dispatch Thread (EDT).
+ * - Network work never runs on the EDT; both modes share one WeatherFetchEngine
+ *   (one long-lived HttpClient, virtual threads, bounded concurrency).
+ * - Every fetched row is appended to a local WeatherSnapshotStore. At startup
+ *   the table is filled from the last snapshot and refreshed in the background;
+ *   "Show History" prints a city's past readings without refetching.
+ * - The multithreaded fetch and the startup refresh are batched: cities whose
+ *   OpenWeatherMap ID is known (from the snapshot or an earlier response) go
+ *   out as "group" requests of up to 20 IDs, the rest by name.
  */
 public final class WeatherAppGUI extends JFrame {
 
     // Please Put your OpenWeather API key here
     private static final String API_KEY = "Your_API_here";
 
+    // Requests in flight at once (shared by both fetch modes)
+    private static final int MAX_CONCURRENCY = 16;
+
+    // OpenWeatherMap updates roughly every 10 minutes
+    private static final Duration CACHE_TTL = Duration.ofMinutes(10);
+    private static final int CACHE_SIZE = 1000;
+
+    // Free plan quota is 60 calls/minute; allow short bursts
+    private static final double RATE_PER_SECOND = 1.0;
+    private static final double RATE_BURST = 10;
+
+    // Local snapshot log (last known weather + history)
+    private static final Path SNAPSHOT_FILE =
+            Path.of(System.getProperty("user.home"), ".weather-app", "snapshots.bin");
+    private static final long HISTORY_WINDOW_MS = 7L * 24 * 60 * 60 * 1000;
+
     // 5 cities in Nepal
     private static final List<String> CITIES = List.of(
             "Kathmandu,NP", "Pokhara,NP", "Lalitpur,NP", "Biratnagar,NP", "Birgunj,NP"
@@ -53,6 +76,15 @@ public final class WeatherAppGUI extends JFrame {
     private final JTable table = new JTable(model);
     private final JTextArea log = new JTextArea(8, 55);
 
+    private final WeatherFetchEngine engine = new WeatherFetchEngine(
+            WeatherFetchEngine.DEFAULT_BASE_URL, API_KEY, MAX_CONCURRENCY, Duration.ofSeconds(10),
+            CACHE_TTL, CACHE_SIZE, new RateLimiter(RATE_PER_SECOND, RATE_BURST));
+
+    private final WeatherSnapshotStore store = openStore();
+
+    // city name (lower case, no country) -> OpenWeatherMap ID, learned from responses
+    private final Map<String, Long> cityIds = new ConcurrentHashMap<>();
+
     public WeatherAppGUI() {
         super("Weather App (Sequential vs Multithreaded)");
         setDefaultCloseOperation(EXIT_ON_CLOSE);
@@ -60,14 +92,22 @@ public final class WeatherAppGUI extends JFrame {
         JButton seqBtn = new JButton("Fetch Sequential");
         JButton mtBtn = new JButton("Fetch Multi-threaded");
 
+        JButton histBtn = new JButton("Show History");
+        JButton latBtn = new JButton("Export Latency");
+
         seqBtn.addActionListener(e -> fetchSequential());
         mtBtn.addActionListener(e -> fetchMultithreaded());
+        histBtn.addActionListener(e -> showHistory());
+        latBtn.addActionListener(e -> exportLatency());
 
         JPanel top = new JPanel(new FlowLayout(FlowLayout.LEFT));
         top.add(seqBtn);
         top.add(mtBtn);
+        top.add(histBtn);
+        top.add(latBtn);
 
         log.setEditable(false);
+        log.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));  // keeps the latency table aligned
 
         add(top, BorderLayout.NORTH);
         add(new JScrollPane(table), BorderLayout.CENTER);
@@ -75,138 +115,223 @@ public final class WeatherAppGUI extends JFrame {
 
         pack();
         setLocationRelativeTo(null);
+
+        loadSnapshot();
     }
 
     private void clearTable() {
-        while (model.getRowCount() > 0) model.removeRow(0);
+        model.setRowCount(0);
+    }
+
+    private static WeatherSnapshotStore openStore() {
+        try {
+            return WeatherSnapshotStore.open(SNAPSHOT_FILE);
+        } catch (IOException ex) {
+            System.err.println("Snapshot store disabled: " + ex.getMessage());
+            return null;
+        }
     }
 
     /**
-     * Sequential weather fetching (one city at a time).
+     * Show the last snapshot immediately, then refresh it in the background.
      */
-    private void fetchSequential() {
-        clearTable();
-        log.setText("");
+    private void loadSnapshot() {
+        if (store == null) return;
 
-        long start = System.nanoTime();
+        List<WeatherRow> rows = store.latest();
+        for (WeatherRow row : rows) {
+            learnId(row);
+            model.addRow(row.toRow());
+        }
+        if (rows.isEmpty()) return;
 
-        HttpClient client = HttpClient.newBuilder()
-                .connectTimeout(Duration.ofSeconds(10))
-                .build();
+        log.append("Loaded " + rows.size() + " cities from snapshot (" + store.size() + " records). Refreshing...\n");
 
-        for (String city : CITIES) {
-            try {
-                WeatherRow row = fetchCity(client, city);
-                model.addRow(row.toRow());
-                log.append("OK: " + city + "\n");
-            } catch (Exception ex) {
-                log.append("FAIL: " + city + " -> " + ex.getMessage() + "\n");
+        fetchBatched(new WeatherFetchEngine.Listener() {
+            @Override
+            public void onResult(WeatherRow row) {
+                save(row);
+                SwingUtilities.invokeLater(() -> upsertRow(row));
             }
-        }
 
-        long end = System.nanoTime();
-        log.append("\nSequential time: " + ((end - start) / 1_000_000) + " ms\n");
+            @Override
+            public void onError(String city, Throwable error) {
+                SwingUtilities.invokeLater(() -> log.append("Refresh FAIL: " + city + " -> " + error.getMessage() + "\n"));
+            }
+        });
     }
 
     /**
-     * Multithreaded weather fetching (parallel using thread pool).
+     * Replace the table row of the same city, or add a new one.
      */
-    private void fetchMultithreaded() {
-        clearTable();
-        log.setText("");
-
-        long start = System.nanoTime();
-
-        HttpClient client = HttpClient.newBuilder()
-                .connectTimeout(Duration.ofSeconds(10))
-                .build();
+    private void upsertRow(WeatherRow row) {
+        for (int i = 0; i < model.getRowCount(); i++) {
+            if (row.city.equalsIgnoreCase(model.getValueAt(i, 0).toString())) {
+                Object[] values = row.toRow();
+                for (int c = 0; c < values.length; c++) model.setValueAt(values[c], i, c);
+                return;
+            }
+        }
+        model.addRow(row.toRow());
+    }
 
-        ExecutorService pool = Executors.newFixedThreadPool(5);
-        CompletionService<WeatherRow> cs = new ExecutorCompletionService<>(pool);
+    /**
+     * Append a fetched row to the snapshot log (called from background threads).
+     */
+    private void save(WeatherRow row) {
+        learnId(row);
+        if (store == null) return;
+        try {
+            store.append(row);
+        } catch (IOException ex) {
+            SwingUtilities.invokeLater(() -> log.append("Snapshot write failed: " + ex.getMessage() + "\n"));
+        }
+    }
 
-        // submit tasks
-        for (String city : CITIES) {
-            cs.submit(() -> fetchCity(client, city));
+    /**
+     * Print stored readings of the selected city (last 7 days) with min/max.
+     */
+    private void showHistory() {
+        int sel = table.getSelectedRow();
+        if (sel < 0 || store == null) {
+            JOptionPane.showMessageDialog(this, "Select a city in the table first.");
+            return;
         }
+        String city = model.getValueAt(table.convertRowIndexToModel(sel), 0).toString();
 
-        // collect results
-        for (int i = 0; i < CITIES.size(); i++) {
-            try {
-                WeatherRow row = cs.take().get();
+        try {
+            long now = System.currentTimeMillis();
+            List<WeatherRow> hist = store.history(city, now - HISTORY_WINDOW_MS, now);
 
-                // Swing must update table on EDT
-                SwingUtilities.invokeLater(() -> model.addRow(row.toRow()));
-                SwingUtilities.invokeLater(() -> log.append("OK: " + row.city + "\n"));
+            SimpleDateFormat fmt = new SimpleDateFormat("yyyy-MM-dd HH:mm");
+            double min = Double.POSITIVE_INFINITY, max = Double.NEGATIVE_INFINITY;
 
-            } catch (Exception ex) {
-                SwingUtilities.invokeLater(() -> log.append("FAIL -> " + ex.getMessage() + "\n"));
+            log.append("\nHistory for " + city + " (" + hist.size() + " readings):\n");
+            for (WeatherRow r : hist) {
+                log.append(" " + fmt.format(new Date(r.fetchedAtMillis)) + "  " + r.tempC + " C, "
+                        + r.condition + ", " + r.humidity + "%, " + r.wind + " m/s\n");
+                min = Math.min(min, r.tempC);
+                max = Math.max(max, r.tempC);
+            }
+            if (!hist.isEmpty()) {
+                double trend = hist.get(hist.size() - 1).tempC - hist.get(0).tempC;
+                log.append(String.format(" min=%.1f C, max=%.1f C, change=%+.1f C%n", min, max, trend));
             }
+        } catch (IOException ex) {
+            log.append("History read failed: " + ex.getMessage() + "\n");
         }
-
-        pool.shutdown();
-
-        long end = System.nanoTime();
-        log.append("\nMultithreaded time: " + ((end - start) / 1_000_000) + " ms\n");
     }
 
     /**
-     * Holds one city's parsed weather result.
+     * Save the per-phase latency histograms as CSV.
      */
-    private static class WeatherRow {
-        String city;
-        double tempC;
-        String condition;
-        int humidity;
-        double wind;
-
-        Object[] toRow() {
-            return new Object[]{city, tempC, condition, humidity, wind};
+    private void exportLatency() {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setSelectedFile(new java.io.File("fetch-latency.csv"));
+        if (chooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) return;
+
+        Path file = chooser.getSelectedFile().toPath();
+        try {
+            engine.metrics().export(file);
+            log.append("Latency exported to " + file + "\n");
+        } catch (IOException ex) {
+            log.append("Latency export failed: " + ex.getMessage() + "\n");
         }
     }
 
     /**
-     * Fetch and parse weather for a city using OpenWeatherMap.
+     * Sequential weather fetching (one city at a time).
+     * Runs on a background virtual thread so the EDT never blocks.
      */
-    private WeatherRow fetchCity(HttpClient client, String city) throws Exception {
-
-        if (API_KEY == null || API_KEY.isBlank() || API_KEY.equals("Your_API_here")) {
-            throw new IllegalStateException("Set your OpenWeather API key in API_KEY.");
-        }
-
-        // Encode city safely (handles commas/spaces)
-        String encodedCity = URLEncoder.encode(city, StandardCharsets.UTF_8);
+    private void fetchSequential() {
+        clearTable();
+        log.setText("");
 
-        String url = "https://api.openweathermap.org/data/2.5/weather?q="
-                + encodedCity + "&appid=" + API_KEY + "&units=metric";
+        Thread.ofVirtual().start(() -> {
+            long start = System.nanoTime();
+
+            for (String city : CITIES) {
+                try {
+                    WeatherRow row = engine.fetchCity(city);
+                    save(row);
+                    SwingUtilities.invokeLater(() -> {
+                        model.addRow(row.toRow());
+                        log.append("OK: " + city + "\n");
+                    });
+                } catch (Exception ex) {
+                    SwingUtilities.invokeLater(() -> log.append("FAIL: " + city + " -> " + ex.getMessage() + "\n"));
+                }
+            }
 
-        HttpRequest req = HttpRequest.newBuilder()
-                .uri(URI.create(url))
-                .timeout(Duration.ofSeconds(10))
-                .GET()
-                .build();
+            long end = System.nanoTime();
+            SwingUtilities.invokeLater(() -> {
+                log.append("\nSequential time: " + ((end - start) / 1_000_000) + " ms\n");
+                log.append("Cache: " + engine.cache().stats() + "\n");
+                log.append("Latency (all requests so far):\n" + engine.metrics().summary());
+            });
+        });
+    }
 
-        HttpResponse<String> resp = client.send(req, HttpResponse.BodyHandlers.ofString());
+    /**
+     * Multithreaded weather fetching (virtual threads via WeatherFetchEngine).
+     * Rows are added to the table as each city arrives.
+     */
+    private void fetchMultithreaded() {
+        clearTable();
+        log.setText("");
 
-        if (resp.statusCode() != 200) {
-            throw new RuntimeException("HTTP " + resp.statusCode() + ": " + resp.body());
-        }
+        long start = System.nanoTime();
 
-        JsonObject obj = JsonParser.parseString(resp.body()).getAsJsonObject();
+        fetchBatched(new WeatherFetchEngine.Listener() {
+            @Override
+            public void onResult(WeatherRow row) {
+                save(row);
 
-        WeatherRow row = new WeatherRow();
-        row.city = obj.get("name").getAsString();
+                // Swing must update table on EDT
+                SwingUtilities.invokeLater(() -> {
+                    model.addRow(row.toRow());
+                    log.append("OK: " + row.city + "\n");
+                });
+            }
 
-        JsonObject main = obj.getAsJsonObject("main");
-        row.tempC = main.get("temp").getAsDouble();
-        row.humidity = main.get("humidity").getAsInt();
+            @Override
+            public void onError(String city, Throwable error) {
+                SwingUtilities.invokeLater(() -> log.append("FAIL: " + city + " -> " + error.getMessage() + "\n"));
+            }
+        }).thenRun(() -> {
+            long end = System.nanoTime();
+            SwingUtilities.invokeLater(() -> {
+                log.append("\nMultithreaded time: " + ((end - start) / 1_000_000) + " ms\n");
+                log.append("Cache: " + engine.cache().stats() + "\n");
+                log.append("Latency (all requests so far):\n" + engine.metrics().summary());
+            });
+        });
+    }
 
-        JsonArray weather = obj.getAsJsonArray("weather");
-        row.condition = weather.get(0).getAsJsonObject().get("main").getAsString();
+    /**
+     * Fetch every city: known IDs in group requests, the others by name.
+     */
+    private CompletableFuture<Void> fetchBatched(WeatherFetchEngine.Listener listener) {
+        List<Long> ids = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        for (String city : CITIES) {
+            Long id = cityIds.get(cityName(city));
+            if (id != null) ids.add(id);
+            else names.add(city);
+        }
+        return CompletableFuture.allOf(engine.fetchAllById(ids, listener), engine.fetchAll(names, listener));
+    }
 
-        JsonObject wind = obj.getAsJsonObject("wind");
-        row.wind = wind.get("speed").getAsDouble();
+    private void learnId(WeatherRow row) {
+        if (row.id != 0 && row.city != null) cityIds.put(cityName(row.city), row.id);
+    }
 
-        return row;
+    /**
+     * "Kathmandu,NP" -> "kathmandu"
+     */
+    private static String cityName(String query) {
+        int comma = query.indexOf(',');
+        return (comma < 0 ? query : query.substring(0, comma)).trim().toLowerCase(Locale.ROOT);
     }
 
     public static void main(String[] args) {
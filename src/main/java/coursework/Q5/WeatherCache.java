@@ -0,0 +1,271 @@
+package coursework.Q5;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @author Nishan Rai
+ * In-memory cache for weather responses.
+ *
+ * Why:
+ * - OpenWeatherMap data only changes every ~10 minutes, but every click used
+ *   to fetch every city again.
+ *
+ * Design:
+ * - TTL: an entry older than the TTL is treated as stale and refetched.
+ * - LRU: at most maxEntries cities are kept (LinkedHashMap in access order).
+ * - Single flight: if several threads ask for the same city while it is being
+ *   fetched, only the first one calls the loader; the others wait for the
+ *   same result (one shared CompletableFuture per city in flight).
+ * - Batches: getAll serves the fresh cities from the cache and loads all the
+ *   others with one BatchLoader call (e.g. one "group" request), taking part
+ *   in the same single-flight bookkeeping as get.
+ * - Metrics: hits, misses, stale refreshes and coalesced requests
+ *   (a coalesced request is also counted as a miss or stale lookup).
+ *
+ * City names are compared case-insensitively after trimming.
+ */
+public final class WeatherCache {
+
+    /**
+     * Loads one city on a miss (normally WeatherFetchEngine's network call).
+     */
+    public interface Loader {
+        WeatherRow load(String city) throws Exception;
+    }
+
+    /**
+     * Loads several cities in one call; returns the rows it found, keyed by
+     * the city strings it was given.
+     */
+    public interface BatchLoader {
+        Map<String, WeatherRow> loadAll(List<String> cities) throws Exception;
+    }
+
+    private static final class Entry {
+        final WeatherRow row;
+        final long fetchedAt;  // System.nanoTime()
+
+        Entry(WeatherRow row, long fetchedAt) {
+            this.row = row;
+            this.fetchedAt = fetchedAt;
+        }
+    }
+
+    private final long ttlNanos;
+    private final Loader loader;
+    private final Map<String, Entry> entries;
+    private final ConcurrentHashMap<String, CompletableFuture<WeatherRow>> inFlight = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong stale = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+
+    public WeatherCache(Duration ttl, int maxEntries, Loader loader) {
+        if (maxEntries <= 0) throw new IllegalArgumentException("maxEntries must be positive");
+        this.ttlNanos = ttl.toNanos();
+        this.loader = loader;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Cached row if fresh, otherwise load it (sharing any in-flight load).
+     */
+    public WeatherRow get(String city) throws Exception {
+        String key = key(city);
+
+        WeatherRow cached = lookup(key);
+        if (cached != null) return cached;
+
+        CompletableFuture<WeatherRow> mine = new CompletableFuture<>();
+        CompletableFuture<WeatherRow> running = inFlight.putIfAbsent(key, mine);
+
+        if (running != null) {
+            coalesced.incrementAndGet();
+            return await(running);
+        }
+
+        try {
+            // another leader may have finished between our lookup and putIfAbsent
+            synchronized (entries) {
+                Entry e = entries.get(key);
+                if (e != null && System.nanoTime() - e.fetchedAt < ttlNanos) {
+                    mine.complete(e.row);
+                    return e.row;
+                }
+            }
+
+            WeatherRow row = loader.load(city);
+            synchronized (entries) {
+                entries.put(key, new Entry(row, System.nanoTime()));
+            }
+            mine.complete(row);
+            return row;
+        } catch (Exception ex) {
+            mine.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    /**
+     * Rows for several cities, keyed by the given strings in input order.
+     * Fresh cities come from the cache, cities another thread is loading
+     * share that load, and all the rest go to the batch loader in a single
+     * call on this thread. A future fails if its load failed or the batch
+     * did not return that city; futures shared with other threads may still
+     * be running when this returns.
+     */
+    public Map<String, CompletableFuture<WeatherRow>> getAll(List<String> cities, BatchLoader batch) {
+        Map<String, CompletableFuture<WeatherRow>> out = new LinkedHashMap<>();
+        Map<String, CompletableFuture<WeatherRow>> mine = new LinkedHashMap<>();   // key -> our future
+        Map<String, String> cityOf = new LinkedHashMap<>();                       // key -> city to load
+
+        // ---- cache lookups and single-flight registration
+        for (String city : cities) {
+            if (out.containsKey(city)) continue;
+            String key = key(city);
+
+            CompletableFuture<WeatherRow> f = mine.get(key);
+            if (f == null) {
+                WeatherRow row = lookup(key);
+                if (row != null) {
+                    out.put(city, CompletableFuture.completedFuture(row));
+                    continue;
+                }
+                f = new CompletableFuture<>();
+                CompletableFuture<WeatherRow> running = inFlight.putIfAbsent(key, f);
+                if (running != null) {
+                    coalesced.incrementAndGet();
+                    f = running;
+                } else {
+                    mine.put(key, f);
+                    cityOf.put(key, city);
+                }
+            }
+            out.put(city, f);
+        }
+        if (mine.isEmpty()) return out;
+
+        // ---- one batch call for the cities this thread leads
+        try {
+            List<String> load = new ArrayList<>(mine.size());
+            synchronized (entries) {
+                for (Map.Entry<String, CompletableFuture<WeatherRow>> e : mine.entrySet()) {
+                    Entry done = entries.get(e.getKey());   // finished by another leader meanwhile
+                    if (done != null && System.nanoTime() - done.fetchedAt < ttlNanos) e.getValue().complete(done.row);
+                    else load.add(cityOf.get(e.getKey()));
+                }
+            }
+
+            Map<String, WeatherRow> rows = load.isEmpty() ? Map.of() : batch.loadAll(load);
+            long now = System.nanoTime();
+            synchronized (entries) {
+                for (String city : load) {
+                    WeatherRow row = rows.get(city);
+                    if (row != null) entries.put(key(city), new Entry(row, now));
+                }
+            }
+            for (String city : load) {
+                WeatherRow row = rows.get(city);
+                CompletableFuture<WeatherRow> f = mine.get(key(city));
+                if (row != null) f.complete(row);
+                else f.completeExceptionally(new NoSuchElementException("Not in batch response: " + city));
+            }
+        } catch (Exception ex) {
+            for (CompletableFuture<WeatherRow> f : mine.values()) f.completeExceptionally(ex);
+        } finally {
+            for (Map.Entry<String, CompletableFuture<WeatherRow>> e : mine.entrySet()) inFlight.remove(e.getKey(), e.getValue());
+        }
+        return out;
+    }
+
+    private static String key(String city) {
+        return city.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Fresh cached row or null, counted as a hit, miss or stale lookup.
+     */
+    private WeatherRow lookup(String key) {
+        synchronized (entries) {
+            Entry e = entries.get(key);
+            if (e == null) {
+                misses.incrementAndGet();
+                return null;
+            }
+            if (System.nanoTime() - e.fetchedAt < ttlNanos) {
+                hits.incrementAndGet();
+                return e.row;
+            }
+            stale.incrementAndGet();
+            return null;
+        }
+    }
+
+    /**
+     * Drop every cached entry (metrics are kept).
+     */
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public long hits() {
+        return hits.get();
+    }
+
+    public long misses() {
+        return misses.get();
+    }
+
+    public long stale() {
+        return stale.get();
+    }
+
+    public long coalesced() {
+        return coalesced.get();
+    }
+
+    /**
+     * One-line summary for the GUI log.
+     */
+    public String stats() {
+        return "hits=" + hits.get() + ", misses=" + misses.get()
+                + ", stale=" + stale.get() + ", coalesced=" + coalesced.get()
+                + ", size=" + size();
+    }
+
+    private static WeatherRow await(CompletableFuture<WeatherRow> f) throws Exception {
+        try {
+            return f.get();
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof Exception) throw (Exception) cause;
+            throw ex;
+        }
+    }
+}
@@ -0,0 +1,381 @@
+package coursework.Q5;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author Nishan Rai
+ * Shared weather fetch engine used by the Weather App GUI.
+ *
+ * Design:
+ * - One long-lived HttpClient (HTTP/2 preferred) for the whole app, so TCP/TLS
+ *   connections are reused instead of rebuilding a client on every click.
+ * - One virtual thread per city request. Blocking in client.send is cheap on a
+ *   virtual thread, so thousands of cities do not need thousands of OS threads.
+ * - A Semaphore caps how many requests are in flight at once.
+ * - Every request has its own timeout.
+ * - Results are streamed to a Listener as soon as each city completes.
+ * - Optional WeatherCache (TTL + LRU + single flight) in front of the network.
+ * - Optional RateLimiter shared by every request. HTTP 429 slows the limiter
+ *   down; 429/5xx/IO failures are retried with exponential backoff and full
+ *   jitter (honouring Retry-After when the server sends it).
+ * - Batch mode: city IDs are grouped into multi-city "group" requests
+ *   (OpenWeatherMap allows up to 20 IDs per call) to save quota; IDs that
+ *   are fresh in the cache are not requested again.
+ * - Bodies are parsed as a stream straight from the connection
+ *   (WeatherJson.read), without building a String or a JSON tree.
+ * - Every request records queue / TTFB / body / parse / total latency into
+ *   FetchMetrics histograms (see metrics()).
+ *
+ * Time Complexity:
+ * - O(n) requests, at most maxConcurrency in parallel
+ */
+public final class WeatherFetchEngine implements AutoCloseable {
+
+    public static final String DEFAULT_BASE_URL = "https://api.openweathermap.org";
+
+    // OpenWeatherMap "group" endpoint limit
+    public static final int MAX_GROUP_SIZE = 20;
+
+    private static final int MAX_ATTEMPTS = 4;
+    private static final long BACKOFF_BASE_MS = 250;
+    private static final long BACKOFF_CAP_MS = 8_000;
+
+    /**
+     * Receives streamed results. Called from background threads.
+     */
+    public interface Listener {
+        void onResult(WeatherRow row);
+
+        void onError(String city, Throwable error);
+    }
+
+    private final String baseUrl;
+    private final String apiKey;
+    private final Duration requestTimeout;
+    private final Semaphore permits;
+    private final HttpClient client;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final WeatherCache cache;       // null = no caching
+    private final RateLimiter limiter;      // null = no rate limit
+    private final FetchMetrics metrics = new FetchMetrics();
+
+    /**
+     * @param baseUrl        scheme + host (+ port), e.g. DEFAULT_BASE_URL or a local stub server
+     * @param apiKey         OpenWeatherMap API key
+     * @param maxConcurrency maximum requests in flight
+     * @param requestTimeout timeout for each request
+     */
+    public WeatherFetchEngine(String baseUrl, String apiKey, int maxConcurrency, Duration requestTimeout) {
+        this(baseUrl, apiKey, maxConcurrency, requestTimeout, Duration.ZERO, 0, null);
+    }
+
+    /**
+     * Same as above, with a response cache in front of the network and an
+     * optional rate limiter.
+     *
+     * @param cacheTtl  how long a city's response stays fresh
+     * @param cacheSize maximum cached cities; 0 disables the cache
+     * @param limiter   shared rate limiter, or null for none
+     */
+    public WeatherFetchEngine(String baseUrl, String apiKey, int maxConcurrency, Duration requestTimeout,
+                              Duration cacheTtl, int cacheSize, RateLimiter limiter) {
+        if (maxConcurrency <= 0) throw new IllegalArgumentException("maxConcurrency must be positive");
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.apiKey = apiKey;
+        this.requestTimeout = requestTimeout;
+        this.permits = new Semaphore(maxConcurrency);
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(executor)
+                .build();
+        this.cache = cacheSize > 0 ? new WeatherCache(cacheTtl, cacheSize, this::fetchRemote) : null;
+        this.limiter = limiter;
+    }
+
+    /**
+     * The response cache, or null when caching is disabled.
+     */
+    public WeatherCache cache() {
+        return cache;
+    }
+
+    /**
+     * Per-phase latency histograms of every request sent by this engine.
+     */
+    public FetchMetrics metrics() {
+        return metrics;
+    }
+
+    /**
+     * Fetch and parse weather for one city on the calling thread.
+     * Served from the cache when enabled; respects the engine's concurrency limit.
+     */
+    public WeatherRow fetchCity(String city) throws Exception {
+        return cache != null ? cache.get(city) : fetchRemote(city);
+    }
+
+    /**
+     * Network call for one city, bypassing the cache.
+     */
+    WeatherRow fetchRemote(String city) throws Exception {
+        checkApiKey();
+        WeatherRow row = send(request(city), WeatherJson::read);
+        row.fetchedAtMillis = System.currentTimeMillis();
+        return row;
+    }
+
+    /**
+     * Fetch up to MAX_GROUP_SIZE cities in one "group" request.
+     *
+     * @param cityIds OpenWeatherMap city IDs
+     * @return rows in response order (cities unknown to the API are absent)
+     */
+    public List<WeatherRow> fetchGroup(List<Long> cityIds) throws Exception {
+        if (cityIds.size() > MAX_GROUP_SIZE) {
+            throw new IllegalArgumentException("At most " + MAX_GROUP_SIZE + " IDs per group request");
+        }
+        checkApiKey();
+
+        StringJoiner ids = new StringJoiner(",");
+        for (long id : cityIds) ids.add(Long.toString(id));
+
+        String url = baseUrl + "/data/2.5/group?id=" + ids + "&appid=" + apiKey + "&units=metric";
+        HttpRequest req = HttpRequest.newBuilder()
+                .uri(URI.create(url))
+                .timeout(requestTimeout)
+                .GET()
+                .build();
+
+        List<WeatherRow> rows = send(req, WeatherJson::readGroup);
+        long now = System.currentTimeMillis();
+        for (WeatherRow row : rows) row.fetchedAtMillis = now;
+        return rows;
+    }
+
+    /**
+     * Fetch many cities by ID using group requests, streaming rows to the
+     * listener as each batch arrives. Failed or missing IDs are reported via
+     * onError with the ID as the city string.
+     * With the cache enabled, fresh IDs are answered from it (key "id:<ID>")
+     * and only the rest of each batch goes into the group request.
+     */
+    public CompletableFuture<Void> fetchAllById(List<Long> cityIds, Listener listener) {
+        List<List<Long>> batches = new ArrayList<>();
+        for (int i = 0; i < cityIds.size(); i += MAX_GROUP_SIZE) {
+            batches.add(cityIds.subList(i, Math.min(cityIds.size(), i + MAX_GROUP_SIZE)));
+        }
+
+        CompletableFuture<?>[] parts = new CompletableFuture<?>[batches.size()];
+        for (int b = 0; b < batches.size(); b++) {
+            List<Long> batch = batches.get(b);
+            parts[b] = CompletableFuture.runAsync(() -> {
+                if (cache != null) {
+                    fetchGroupCached(batch, listener);
+                    return;
+                }
+                try {
+                    Set<Long> missing = new LinkedHashSet<>(batch);
+                    for (WeatherRow row : fetchGroup(batch)) {
+                        missing.remove(row.id);
+                        listener.onResult(row);
+                    }
+                    for (long id : missing) listener.onError(Long.toString(id), new RuntimeException("Not in group response"));
+                } catch (Exception ex) {
+                    for (long id : batch) listener.onError(Long.toString(id), ex);
+                }
+            }, executor);
+        }
+        return CompletableFuture.allOf(parts);
+    }
+
+    /**
+     * One batch of fetchAllById through the cache: a single group request for
+     * the IDs that are neither fresh nor already being loaded.
+     */
+    private void fetchGroupCached(List<Long> batch, Listener listener) {
+        Map<String, Long> ids = new LinkedHashMap<>();
+        for (long id : batch) ids.put("id:" + id, id);
+
+        Map<String, CompletableFuture<WeatherRow>> rows = cache.getAll(new ArrayList<>(ids.keySet()), keys -> {
+            List<Long> want = new ArrayList<>(keys.size());
+            for (String k : keys) want.add(ids.get(k));
+            Map<String, WeatherRow> found = new HashMap<>();
+            for (WeatherRow row : fetchGroup(want)) found.put("id:" + row.id, row);
+            return found;
+        });
+
+        for (Map.Entry<String, CompletableFuture<WeatherRow>> e : rows.entrySet()) {
+            String id = Long.toString(ids.get(e.getKey()));
+            try {
+                listener.onResult(e.getValue().join());
+            } catch (CompletionException | CancellationException ex) {
+                listener.onError(id, ex.getCause() != null ? ex.getCause() : ex);
+            }
+        }
+    }
+
+    /**
+     * Reads a 200 response body.
+     */
+    private interface BodyParser<T> {
+        T parse(InputStream body) throws IOException;
+    }
+
+    /**
+     * Send with rate limiting, the concurrency cap and retries.
+     * The body of a 200 response is handed to the parser as a stream.
+     */
+    private <T> T send(HttpRequest req, BodyParser<T> parser) throws Exception {
+        long start = System.nanoTime();
+        for (int attempt = 1; ; attempt++) {
+            long queued = System.nanoTime();
+            if (limiter != null) limiter.acquire();
+
+            HttpResponse<InputStream> resp;
+            permits.acquire();
+            long sent = System.nanoTime();
+            metrics.record(FetchMetrics.Phase.QUEUE, sent - queued);
+            try {
+                resp = client.send(req, HttpResponse.BodyHandlers.ofInputStream());
+            } catch (IOException ex) {
+                permits.release();
+                if (attempt >= MAX_ATTEMPTS) throw ex;
+                Thread.sleep(backoffMillis(attempt));
+                continue;
+            } catch (RuntimeException | InterruptedException ex) {
+                permits.release();
+                throw ex;
+            }
+            // headers are in: DNS + connect + TLS (new connections only) + server time
+            long headers = System.nanoTime();
+            metrics.record(FetchMetrics.Phase.TTFB, headers - sent);
+
+            // the permit covers the body too: it is released once the stream
+            // has been parsed (or drained for the error message) and closed
+            int code = resp.statusCode();
+            try (FetchMetrics.TimedInputStream body = new FetchMetrics.TimedInputStream(resp.body())) {
+                if (code == 200) {
+                    T value = parser.parse(body);
+                    long parsed = System.nanoTime() - headers;
+                    metrics.record(FetchMetrics.Phase.BODY, body.readNanos);
+                    metrics.record(FetchMetrics.Phase.PARSE, parsed - body.readNanos);
+                    metrics.record(FetchMetrics.Phase.TOTAL, System.nanoTime() - start);
+                    if (limiter != null) limiter.onSuccess();
+                    return value;
+                }
+
+                boolean retryable = code == 429 || code >= 500;
+                if (!retryable || attempt >= MAX_ATTEMPTS) {
+                    throw new RuntimeException("HTTP " + code + ": "
+                            + new String(body.readAllBytes(), StandardCharsets.UTF_8));
+                }
+            } finally {
+                permits.release();
+            }
+
+            Duration retryAfter = retryAfter(resp);
+            if (code == 429 && limiter != null) limiter.onThrottled(retryAfter);
+            Thread.sleep(retryAfter != null ? retryAfter.toMillis() : backoffMillis(attempt));
+        }
+    }
+
+    /**
+     * Exponential backoff with full jitter: uniform in [0, min(cap, base * 2^attempt)].
+     */
+    static long backoffMillis(int attempt) {
+        long ceiling = Math.min(BACKOFF_CAP_MS, BACKOFF_BASE_MS << Math.min(attempt, 20));
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    /**
+     * Retry-After in seconds (the HTTP-date form is ignored).
+     */
+    private static Duration retryAfter(HttpResponse<?> resp) {
+        Optional<String> h = resp.headers().firstValue("Retry-After");
+        if (h.isEmpty()) return null;
+        try {
+            return Duration.ofSeconds(Math.max(0, Long.parseLong(h.get().trim())));
+        } catch (NumberFormatException ex) {
+            return null;
+        }
+    }
+
+    private void checkApiKey() {
+        if (apiKey == null || apiKey.isBlank() || apiKey.equals("Your_API_here")) {
+            throw new IllegalStateException("Set your OpenWeather API key in API_KEY.");
+        }
+    }
+
+    /**
+     * Fetch one city on a virtual thread.
+     */
+    public CompletableFuture<WeatherRow> fetchAsync(String city) {
+        CompletableFuture<WeatherRow> f = new CompletableFuture<>();
+        executor.execute(() -> {
+            try {
+                f.complete(fetchCity(city));
+            } catch (Throwable ex) {
+                f.completeExceptionally(ex);
+            }
+        });
+        return f;
+    }
+
+    /**
+     * Fetch all cities concurrently, streaming each result to the listener
+     * as it arrives. The returned future completes when every city is done
+     * (successfully or not).
+     */
+    public CompletableFuture<Void> fetchAll(List<String> cities, Listener listener) {
+        CompletableFuture<Void> all = new CompletableFuture<>();
+        if (cities.isEmpty()) {
+            all.complete(null);
+            return all;
+        }
+
+        AtomicInteger left = new AtomicInteger(cities.size());
+        for (String city : cities) {
+            fetchAsync(city).whenComplete((row, ex) -> {
+                try {
+                    if (ex != null) listener.onError(city, ex);
+                    else listener.onResult(row);
+                } finally {
+                    if (left.decrementAndGet() == 0) all.complete(null);
+                }
+            });
+        }
+        return all;
+    }
+
+    HttpRequest request(String city) {
+        // Encode city safely (handles commas/spaces)
+        String encodedCity = URLEncoder.encode(city, StandardCharsets.UTF_8);
+
+        String url = baseUrl + "/data/2.5/weather?q="
+                + encodedCity + "&appid=" + apiKey + "&units=metric";
+
+        return HttpRequest.newBuilder()
+                .uri(URI.create(url))
+                .timeout(requestTimeout)
+                .GET()
+                .build();
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+        client.close();
+    }
+}
@@ -0,0 +1,177 @@
+package coursework.Q5;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @author Nishan Rai
+ * JSON parsing for OpenWeatherMap responses.
+ *
+ * Two ways to get the same WeatherRow:
+ * - DOM (parseDom*): build the whole Gson tree from a String and pick fields.
+ *   Simple, but allocates the full body string plus a node per JSON value.
+ * - Streaming (read*): walk the tokens with JsonReader straight from the
+ *   response InputStream, keep only the five fields we need and skip every
+ *   other subtree (coord, sys, clouds, ...) without building it.
+ *
+ * The engine uses the streaming reader; the DOM version is kept as the
+ * reference implementation (and benchmark baseline).
+ */
+public final class WeatherJson {
+
+    private WeatherJson() { }
+
+    // -------------------------
+    // DOM parsing
+    // -------------------------
+
+    /**
+     * Parse one current-weather JSON document.
+     */
+    public static WeatherRow parseDom(String body) {
+        return fromTree(JsonParser.parseString(body).getAsJsonObject());
+    }
+
+    /**
+     * Parse a "group" response: {"cnt": n, "list": [current-weather objects]}.
+     */
+    public static List<WeatherRow> parseDomGroup(String body) {
+        JsonArray list = JsonParser.parseString(body).getAsJsonObject().getAsJsonArray("list");
+        List<WeatherRow> rows = new ArrayList<>(list.size());
+        for (int i = 0; i < list.size(); i++) rows.add(fromTree(list.get(i).getAsJsonObject()));
+        return rows;
+    }
+
+    private static WeatherRow fromTree(JsonObject obj) {
+        WeatherRow row = new WeatherRow();
+        if (obj.has("id")) row.id = obj.get("id").getAsLong();
+        row.city = obj.get("name").getAsString();
+
+        JsonObject main = obj.getAsJsonObject("main");
+        row.tempC = main.get("temp").getAsDouble();
+        row.humidity = main.get("humidity").getAsInt();
+
+        JsonArray weather = obj.getAsJsonArray("weather");
+        row.condition = weather.get(0).getAsJsonObject().get("main").getAsString();
+
+        JsonObject wind = obj.getAsJsonObject("wind");
+        row.wind = wind.get("speed").getAsDouble();
+
+        return row;
+    }
+
+    // -------------------------
+    // Streaming parsing
+    // -------------------------
+
+    /**
+     * Stream one current-weather document from the body.
+     */
+    public static WeatherRow read(InputStream in) throws IOException {
+        JsonReader r = new JsonReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        return readCity(r);
+    }
+
+    /**
+     * Stream a "group" response, one WeatherRow per list element.
+     */
+    public static List<WeatherRow> readGroup(InputStream in) throws IOException {
+        JsonReader r = new JsonReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        List<WeatherRow> rows = new ArrayList<>();
+
+        r.beginObject();
+        while (r.hasNext()) {
+            if (r.nextName().equals("list")) {
+                r.beginArray();
+                while (r.hasNext()) rows.add(readCity(r));
+                r.endArray();
+            } else {
+                r.skipValue();
+            }
+        }
+        r.endObject();
+        return rows;
+    }
+
+    private static WeatherRow readCity(JsonReader r) throws IOException {
+        WeatherRow row = new WeatherRow();
+        boolean hasName = false, hasMain = false, hasWeather = false, hasWind = false;
+
+        r.beginObject();
+        while (r.hasNext()) {
+            String name = r.nextName();
+            if (r.peek() == JsonToken.NULL) {
+                r.skipValue();
+                continue;
+            }
+
+            switch (name) {
+                case "id":
+                    row.id = r.nextLong();
+                    break;
+                case "name":
+                    row.city = r.nextString();
+                    hasName = true;
+                    break;
+                case "main":
+                    r.beginObject();
+                    while (r.hasNext()) {
+                        String f = r.nextName();
+                        if (f.equals("temp")) row.tempC = r.nextDouble();
+                        else if (f.equals("humidity")) row.humidity = r.nextInt();
+                        else r.skipValue();
+                    }
+                    r.endObject();
+                    hasMain = true;
+                    break;
+                case "weather":
+                    r.beginArray();
+                    if (r.hasNext()) {
+                        r.beginObject();
+                        while (r.hasNext()) {
+                            if (r.nextName().equals("main")) {
+                                row.condition = r.nextString();
+                                hasWeather = true;
+                            } else {
+                                r.skipValue();
+                            }
+                        }
+                        r.endObject();
+                    }
+                    while (r.hasNext()) r.skipValue();  // only the first condition is shown
+                    r.endArray();
+                    break;
+                case "wind":
+                    r.beginObject();
+                    while (r.hasNext()) {
+                        if (r.nextName().equals("speed")) {
+                            row.wind = r.nextDouble();
+                            hasWind = true;
+                        } else {
+                            r.skipValue();
+                        }
+                    }
+                    r.endObject();
+                    break;
+                default:
+                    r.skipValue();
+            }
+        }
+        r.endObject();
+
+        if (!(hasName && hasMain && hasWeather && hasWind)) {
+            throw new IOException("Incomplete weather object (need name, main, weather, wind)");
+        }
+        return row;
+    }
+}
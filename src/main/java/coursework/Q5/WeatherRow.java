@@ -0,0 +1,18 @@
+package coursework.Q5;
+
+/**
+ * Holds one city's parsed weather result.
+ */
+public final class WeatherRow {
+    public long id;          // OpenWeatherMap city ID (0 if unknown)
+    public String city;
+    public double tempC;
+    public String condition;
+    public int humidity;
+    public double wind;
+    public long fetchedAtMillis;  // when the API returned this row (epoch ms)
+
+    public Object[] toRow() {
+        return new Object[]{city, tempC, condition, humidity, wind};
+    }
+}
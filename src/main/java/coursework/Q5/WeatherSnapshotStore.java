@@ -0,0 +1,201 @@
+package coursework.Q5;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.zip.CRC32;
+
+/**
+ * @author Nishan Rai
+ * Disk-backed store of weather snapshots (append-only log).
+ *
+ * Why:
+ * - The GUI used to start with an empty table and wait for the network.
+ *   With this store the last known weather is shown immediately, and past
+ *   readings can be queried for trends without refetching.
+ *
+ * File format (one record per fetched row, appended at the end):
+ *   int length | int crc32(payload) | payload
+ *   payload = fetchedAtMillis, id, city, tempC, condition, humidity, wind
+ *             (DataOutput encoding)
+ *
+ * Startup:
+ * - The log is scanned once. The newest record per city is kept in memory
+ *   and the file offsets of every record are indexed per city.
+ * - A torn or corrupt tail (e.g. crash during a write) is cut off.
+ *
+ * Time Complexity:
+ * - open: O(file size), append: O(1), latest: O(cities),
+ *   history: O(records of that city)
+ */
+public final class WeatherSnapshotStore implements Closeable {
+
+    private static final int HEADER = 8;
+    private static final int MAX_RECORD = 64 * 1024;
+
+    private final FileChannel channel;
+    private final Map<String, WeatherRow> latest = new LinkedHashMap<>();
+    private final Map<String, List<Long>> offsets = new HashMap<>();
+    private long end;
+
+    private WeatherSnapshotStore(FileChannel channel) {
+        this.channel = channel;
+    }
+
+    /**
+     * Open (or create) the store at the given file.
+     */
+    public static WeatherSnapshotStore open(Path file) throws IOException {
+        Path dir = file.toAbsolutePath().getParent();
+        if (dir != null) Files.createDirectories(dir);
+
+        FileChannel ch = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        WeatherSnapshotStore store = new WeatherSnapshotStore(ch);
+        try {
+            store.load(file);
+        } catch (IOException ex) {
+            ch.close();
+            throw ex;
+        }
+        return store;
+    }
+
+    private void load(Path file) throws IOException {
+        long size = channel.size();
+        long pos = 0;
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+            while (pos + HEADER <= size) {
+                int len = in.readInt();
+                int crc = in.readInt();
+                if (len <= 0 || len > MAX_RECORD || pos + HEADER + len > size) break;
+
+                byte[] payload = new byte[len];
+                in.readFully(payload);
+                if (crc(payload) != crc) break;
+
+                index(decode(payload), pos);
+                pos += HEADER + len;
+            }
+        }
+
+        // drop anything after the last good record
+        if (pos < size) channel.truncate(pos);
+        end = pos;
+    }
+
+    /**
+     * Append one fetched row. Rows without a timestamp are stamped now.
+     * A row already stored (same city and timestamp, e.g. a cache hit) is skipped.
+     */
+    public synchronized void append(WeatherRow row) throws IOException {
+        if (row.fetchedAtMillis == 0) row.fetchedAtMillis = System.currentTimeMillis();
+
+        WeatherRow prev = latest.get(key(row.city));
+        if (prev != null && prev.fetchedAtMillis == row.fetchedAtMillis) return;
+
+        byte[] payload = encode(row);
+        ByteBuffer buf = ByteBuffer.allocate(HEADER + payload.length);
+        buf.putInt(payload.length).putInt(crc(payload)).put(payload).flip();
+
+        long pos = end;
+        while (buf.hasRemaining()) end += channel.write(buf, end);
+        index(row, pos);
+    }
+
+    /**
+     * Newest snapshot per city, in first-seen order.
+     */
+    public synchronized List<WeatherRow> latest() {
+        return new ArrayList<>(latest.values());
+    }
+
+    /**
+     * All snapshots of one city with fromMillis <= fetchedAt <= toMillis, oldest first.
+     */
+    public synchronized List<WeatherRow> history(String city, long fromMillis, long toMillis) throws IOException {
+        List<Long> list = offsets.get(key(city));
+        if (list == null) return List.of();
+
+        List<WeatherRow> out = new ArrayList<>();
+        ByteBuffer header = ByteBuffer.allocate(HEADER);
+        for (long pos : list) {
+            header.clear();
+            channel.read(header, pos);
+            header.flip();
+            int len = header.getInt();
+            header.getInt();
+
+            ByteBuffer payload = ByteBuffer.allocate(len);
+            while (payload.hasRemaining()) channel.read(payload, pos + HEADER + payload.position());
+
+            WeatherRow row = decode(payload.array());
+            if (row.fetchedAtMillis >= fromMillis && row.fetchedAtMillis <= toMillis) out.add(row);
+        }
+        return out;
+    }
+
+    /**
+     * Number of records in the log.
+     */
+    public synchronized int size() {
+        int n = 0;
+        for (List<Long> l : offsets.values()) n += l.size();
+        return n;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        channel.force(false);
+        channel.close();
+    }
+
+    private void index(WeatherRow row, long pos) {
+        String k = key(row.city);
+        WeatherRow prev = latest.get(k);
+        if (prev == null || row.fetchedAtMillis >= prev.fetchedAtMillis) latest.put(k, row);
+        offsets.computeIfAbsent(k, x -> new ArrayList<>()).add(pos);
+    }
+
+    private static String key(String city) {
+        return city.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static byte[] encode(WeatherRow row) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeLong(row.fetchedAtMillis);
+        out.writeLong(row.id);
+        out.writeUTF(row.city);
+        out.writeDouble(row.tempC);
+        out.writeUTF(row.condition == null ? "" : row.condition);
+        out.writeInt(row.humidity);
+        out.writeDouble(row.wind);
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private static WeatherRow decode(byte[] payload) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        WeatherRow row = new WeatherRow();
+        row.fetchedAtMillis = in.readLong();
+        row.id = in.readLong();
+        row.city = in.readUTF();
+        row.tempC = in.readDouble();
+        row.condition = in.readUTF();
+        row.humidity = in.readInt();
+        row.wind = in.readDouble();
+        return row;
+    }
+
+    private static int crc(byte[] payload) {
+        CRC32 c = new CRC32();
+        c.update(payload);
+        return (int) c.getValue();
+    }
+}
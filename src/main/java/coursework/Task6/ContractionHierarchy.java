@@ -0,0 +1,569 @@
+package coursework.Task6;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * @author Nishan Rai
+ * Contraction hierarchy (CH) over the -log(p) weights of a ReliabilityGraph.
+ *
+ * Preprocessing (offline, once per static network):
+ * - Nodes are contracted one by one, least important first. Importance =
+ *   edge difference (shortcuts added - edges removed) + contracted
+ *   neighbours + level, recomputed lazily when a node reaches the top.
+ * - Contracting v: for each pair u -> v -> w a shortcut u -> w (weight
+ *   w(u,v) + w(v,w), middle node v) is added unless a local "witness"
+ *   search from u that avoids v finds a path that is at least as safe.
+ *   The witness search is capped at a number of settled nodes (a missed
+ *   witness only adds a redundant shortcut, never a wrong answer).
+ * - While contracting, the remaining-graph adjacency only keeps live
+ *   neighbours; the final up/down edges are collected per node as it is
+ *   contracted.
+ * - rank[v] = contraction order. The result is stored as two CSR graphs:
+ *   up   : u -> w with rank[w] > rank[u]   (used by the forward search)
+ *   down : u -> w with rank[u] > rank[w], stored at w (backward search)
+ *
+ * Query (bidirectional upward Dijkstra):
+ * - Forward from s over "up" edges, backward from t over "down" edges; both
+ *   only ever climb in rank, so each side settles a few hundred nodes even
+ *   on million-node road networks. The best meeting node gives the answer,
+ *   and shortcuts are unpacked through their middle nodes to get the path.
+ *
+ * Index file: see save / load (same little-endian layout style as
+ * ReliabilityGraph).
+ *
+ * Time Complexity:
+ * - preprocessing: roughly O(V * witness search), depends on the network
+ * - query: O(k log k), k = nodes settled by both upward searches
+ */
+public final class ContractionHierarchy {
+
+    private static final int MAGIC = 0x52474348;   // "RGCH"
+    private static final int HEADER = 16;
+    private static final int WITNESS_SETTLE_LIMIT = 500;   // real contraction
+    private static final int ESTIMATE_SETTLE_LIMIT = 50;   // priority estimate only
+
+    public final int n;
+    private final int[] rank;
+
+    private final int[] upOffsets;
+    private final int[] upTargets;
+    private final double[] upWeights;
+    private final int[] upMid;       // -1 = original edge
+
+    private final int[] downOffsets;
+    private final int[] downSources;
+    private final double[] downWeights;
+    private final int[] downMid;
+
+    private ContractionHierarchy(int n, int[] rank,
+                                 int[] upOffsets, int[] upTargets, double[] upWeights, int[] upMid,
+                                 int[] downOffsets, int[] downSources, double[] downWeights, int[] downMid) {
+        this.n = n;
+        this.rank = rank;
+        this.upOffsets = upOffsets;
+        this.upTargets = upTargets;
+        this.upWeights = upWeights;
+        this.upMid = upMid;
+        this.downOffsets = downOffsets;
+        this.downSources = downSources;
+        this.downWeights = downWeights;
+        this.downMid = downMid;
+    }
+
+    /**
+     * Number of edges in the hierarchy (original edges + shortcuts).
+     */
+    public int edgeCount() {
+        return upOffsets[n] + downOffsets[n];
+    }
+
+    // -------------------------
+    // Preprocessing
+    // -------------------------
+
+    /**
+     * Growable adjacency of one node during contraction.
+     * At most one entry per neighbour (parallel edges keep the lightest).
+     */
+    private static final class Adj {
+        int[] node = new int[4];
+        double[] w = new double[4];
+        int[] mid = new int[4];
+        int size;
+
+        /**
+         * Add the edge, or lower the existing one. Returns true if changed.
+         */
+        boolean relax(int other, double weight, int middle) {
+            for (int i = 0; i < size; i++) {
+                if (node[i] == other) {
+                    if (weight >= w[i]) return false;
+                    w[i] = weight;
+                    mid[i] = middle;
+                    return true;
+                }
+            }
+            if (size == node.length) {
+                node = Arrays.copyOf(node, size * 2);
+                w = Arrays.copyOf(w, size * 2);
+                mid = Arrays.copyOf(mid, size * 2);
+            }
+            node[size] = other;
+            w[size] = weight;
+            mid[size] = middle;
+            size++;
+            return true;
+        }
+
+        void remove(int other) {
+            for (int i = 0; i < size; i++) {
+                if (node[i] == other) {
+                    size--;
+                    node[i] = node[size];
+                    w[i] = w[size];
+                    mid[i] = mid[size];
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Build the hierarchy for a graph.
+     */
+    public static ContractionHierarchy build(ReliabilityGraph g) {
+        int n = g.n;
+        Adj[] out = new Adj[n];
+        Adj[] in = new Adj[n];
+        for (int v = 0; v < n; v++) {
+            out[v] = new Adj();
+            in[v] = new Adj();
+        }
+        for (int u = 0; u < n; u++) {
+            for (int i = g.offsets[u]; i < g.offsets[u + 1]; i++) {
+                int v = g.targets[i];
+                if (v == u) continue;
+                out[u].relax(v, g.weights[i], -1);
+                in[v].relax(u, g.weights[i], -1);
+            }
+        }
+
+        int[] deletedNeighbours = new int[n];
+        int[] level = new int[n];
+        int[] rank = new int[n];
+        Adj[] up = new Adj[n];     // final edges v -> higher node, frozen when v is contracted
+        Adj[] down = new Adj[n];   // final edges higher node -> v
+        SafestPathReliability.Workspace ws = new SafestPathReliability.Workspace(n);
+
+        // ---- initial priorities
+        IndexedDaryHeap order = new IndexedDaryHeap(n);
+        for (int v = 0; v < n; v++) {
+            order.pushOrDecrease(v, priority(v, out, in, deletedNeighbours, level, ws));
+        }
+
+        // ---- contract in (lazily updated) priority order
+        int next = 0;
+        while (!order.isEmpty()) {
+            int v = order.pollMin();
+            double p = priority(v, out, in, deletedNeighbours, level, ws);
+            if (p > order.minKey()) {
+                order.pushOrDecrease(v, p);   // got worse since it was queued
+                continue;
+            }
+
+            contract(v, out, in, ws, WITNESS_SETTLE_LIMIT, true);
+            rank[v] = next++;
+
+            // every live neighbour is contracted later, so v's remaining edges are final
+            up[v] = out[v];
+            down[v] = in[v];
+            for (int i = 0; i < out[v].size; i++) {
+                int x = out[v].node[i];
+                in[x].remove(v);
+                touchNeighbour(v, x, deletedNeighbours, level);
+            }
+            for (int i = 0; i < in[v].size; i++) {
+                int x = in[v].node[i];
+                out[x].remove(v);
+                touchNeighbour(v, x, deletedNeighbours, level);
+            }
+            out[v] = null;
+            in[v] = null;
+        }
+
+        return toCsr(n, rank, up, down);
+    }
+
+    private static void touchNeighbour(int v, int x, int[] deletedNeighbours, int[] level) {
+        deletedNeighbours[x]++;
+        level[x] = Math.max(level[x], level[v] + 1);
+    }
+
+    private static double priority(int v, Adj[] out, Adj[] in,
+                                   int[] deletedNeighbours, int[] level, SafestPathReliability.Workspace ws) {
+        int removed = out[v].size + in[v].size;
+        int added = contract(v, out, in, ws, ESTIMATE_SETTLE_LIMIT, false);
+        return 2 * (added - removed) + deletedNeighbours[v] + level[v];
+    }
+
+    /**
+     * Find (and, if apply is true, insert) the shortcuts needed to remove v.
+     * Returns the number of shortcuts.
+     */
+    private static int contract(int v, Adj[] out, Adj[] in,
+                                SafestPathReliability.Workspace ws, int settleLimit, boolean apply) {
+        Adj vin = in[v], vout = out[v];
+        int shortcuts = 0;
+
+        for (int a = 0; a < vin.size; a++) {
+            int u = vin.node[a];
+            double wu = vin.w[a];
+
+            double maxOut = Double.NEGATIVE_INFINITY;
+            for (int b = 0; b < vout.size; b++) {
+                int w = vout.node[b];
+                if (w != u) maxOut = Math.max(maxOut, vout.w[b]);
+            }
+            if (maxOut == Double.NEGATIVE_INFINITY) continue;
+
+            witnessSearch(u, v, wu + maxOut, settleLimit, out, ws);
+
+            for (int b = 0; b < vout.size; b++) {
+                int w = vout.node[b];
+                if (w == u) continue;
+
+                double via = wu + vout.w[b];
+                if (ws.dist[w] <= via) continue;   // witness found
+
+                shortcuts++;
+                if (apply) {
+                    out[u].relax(w, via, v);
+                    in[w].relax(u, via, v);
+                }
+            }
+        }
+        return shortcuts;
+    }
+
+    /**
+     * Dijkstra from u in the remaining graph without v, up to maxCost.
+     */
+    private static void witnessSearch(int u, int skip, double maxCost, int settleLimit, Adj[] out,
+                                      SafestPathReliability.Workspace ws) {
+        ws.reset();
+        double[] dist = ws.dist;
+        IndexedDaryHeap pq = ws.heap;
+
+        ws.reach(u, 0.0, -1);
+        pq.pushOrDecrease(u, 0.0);
+
+        int settled = 0;
+        while (!pq.isEmpty() && pq.minKey() <= maxCost && settled < settleLimit) {
+            int x = pq.pollMin();
+            settled++;
+
+            Adj adj = out[x];
+            for (int i = 0; i < adj.size; i++) {
+                int y = adj.node[i];
+                if (y == skip) continue;
+                double nd = dist[x] + adj.w[i];
+                if (nd < dist[y]) {
+                    ws.reach(y, nd, x);
+                    pq.pushOrDecrease(y, nd);
+                }
+            }
+        }
+    }
+
+    private static ContractionHierarchy toCsr(int n, int[] rank, Adj[] up, Adj[] down) {
+        int[] upOffsets = new int[n + 1];
+        int[] downOffsets = new int[n + 1];
+        for (int v = 0; v < n; v++) {
+            upOffsets[v + 1] = upOffsets[v] + up[v].size;
+            downOffsets[v + 1] = downOffsets[v] + down[v].size;
+        }
+
+        int[] upTargets = new int[upOffsets[n]];
+        double[] upWeights = new double[upOffsets[n]];
+        int[] upMid = new int[upOffsets[n]];
+        int[] downSources = new int[downOffsets[n]];
+        double[] downWeights = new double[downOffsets[n]];
+        int[] downMid = new int[downOffsets[n]];
+
+        for (int v = 0; v < n; v++) {
+            Adj a = up[v];
+            System.arraycopy(a.node, 0, upTargets, upOffsets[v], a.size);
+            System.arraycopy(a.w, 0, upWeights, upOffsets[v], a.size);
+            System.arraycopy(a.mid, 0, upMid, upOffsets[v], a.size);
+
+            Adj b = down[v];
+            System.arraycopy(b.node, 0, downSources, downOffsets[v], b.size);
+            System.arraycopy(b.w, 0, downWeights, downOffsets[v], b.size);
+            System.arraycopy(b.mid, 0, downMid, downOffsets[v], b.size);
+        }
+
+        return new ContractionHierarchy(n, rank, upOffsets, upTargets, upWeights, upMid,
+                downOffsets, downSources, downWeights, downMid);
+    }
+
+    // -------------------------
+    // Queries
+    // -------------------------
+
+    /**
+     * New query engine. A Query is not thread-safe: use one per thread.
+     */
+    public Query newQuery() {
+        return new Query();
+    }
+
+    /**
+     * Reusable bidirectional search state (resets only what the last query touched).
+     */
+    public final class Query {
+        private final SafestPathReliability.Workspace fwd = new SafestPathReliability.Workspace(n);
+        private final SafestPathReliability.Workspace bwd = new SafestPathReliability.Workspace(n);
+        private int meet;
+
+        private Query() { }
+
+        /**
+         * Reliability of the safest s -> t path (0 if unreachable).
+         */
+        public double reliability(int s, int t) {
+            return Math.exp(-search(s, t));
+        }
+
+        /**
+         * Safest s -> t path with shortcuts unpacked to original edges.
+         */
+        public SafestPathReliability.Result safestPath(int s, int t) {
+            double best = search(s, t);
+            if (Double.isInfinite(best)) return new SafestPathReliability.Result(0.0, List.of());
+
+            // s .. meet from the forward tree, meet .. t from the backward tree
+            List<Integer> hubs = new ArrayList<>();
+            for (int v = meet; v != -1; v = fwd.parent[v]) hubs.add(v);
+            Collections.reverse(hubs);
+            for (int v = bwd.parent[meet]; v != -1; v = bwd.parent[v]) hubs.add(v);
+
+            List<Integer> path = new ArrayList<>();
+            path.add(s);
+            for (int i = 0; i + 1 < hubs.size(); i++) unpack(hubs.get(i), hubs.get(i + 1), path);
+
+            return new SafestPathReliability.Result(Math.exp(-best), path);
+        }
+
+        /**
+         * Returns the -log reliability of the best path, sets meet.
+         */
+        private double search(int s, int t) {
+            fwd.reset();
+            bwd.reset();
+            meet = -1;
+
+            fwd.reach(s, 0.0, -1);
+            fwd.heap.pushOrDecrease(s, 0.0);
+            bwd.reach(t, 0.0, -1);
+            bwd.heap.pushOrDecrease(t, 0.0);
+
+            double best = Double.POSITIVE_INFINITY;
+            if (s == t) {
+                meet = s;
+                return 0.0;
+            }
+
+            while (true) {
+                double fk = fwd.heap.minKey(), bk = bwd.heap.minKey();
+                if (Math.min(fk, bk) >= best) break;   // also covers both heaps empty
+
+                if (fk <= bk) best = step(fwd, bwd, upOffsets, upTargets, upWeights, downOffsets, downSources, downWeights, best);
+                else best = step(bwd, fwd, downOffsets, downSources, downWeights, upOffsets, upTargets, upWeights, best);
+            }
+            return best;
+        }
+
+        /**
+         * Settle one node on one side and relax its upward edges.
+         * Stall-on-demand: if a higher node already reached on this side
+         * offers a shorter way down to u, u's distance is not optimal and
+         * its edges are not relaxed (this prunes most of the search space).
+         */
+        private double step(SafestPathReliability.Workspace me, SafestPathReliability.Workspace other,
+                            int[] offsets, int[] heads, double[] weights,
+                            int[] stallOffsets, int[] stallHeads, double[] stallWeights, double best) {
+            int u = me.heap.pollMin();
+            double du = me.dist[u];
+
+            if (other.dist[u] < Double.POSITIVE_INFINITY && du + other.dist[u] < best) {
+                best = du + other.dist[u];
+                meet = u;
+            }
+
+            for (int i = stallOffsets[u], end = stallOffsets[u + 1]; i < end; i++) {
+                if (me.dist[stallHeads[i]] + stallWeights[i] < du) return best;
+            }
+
+            for (int i = offsets[u], end = offsets[u + 1]; i < end; i++) {
+                int v = heads[i];
+                double nd = du + weights[i];
+                if (nd < me.dist[v]) {
+                    me.reach(v, nd, u);
+                    me.heap.pushOrDecrease(v, nd);
+                }
+            }
+            return best;
+        }
+    }
+
+    /**
+     * Append the original nodes of hierarchy edge a -> b (excluding a) to path.
+     */
+    private void unpack(int a, int b, List<Integer> path) {
+        ArrayDeque<int[]> stack = new ArrayDeque<>();
+        stack.push(new int[]{a, b});
+
+        while (!stack.isEmpty()) {
+            int[] e = stack.pop();
+            int mid = middle(e[0], e[1]);
+            if (mid < 0) {
+                path.add(e[1]);
+            } else {
+                stack.push(new int[]{mid, e[1]});
+                stack.push(new int[]{e[0], mid});
+            }
+        }
+    }
+
+    /**
+     * Middle node of hierarchy edge a -> b (-1 if it is an original edge).
+     * The edge is stored at its lower-ranked endpoint.
+     */
+    private int middle(int a, int b) {
+        if (rank[a] < rank[b]) {
+            for (int i = upOffsets[a]; i < upOffsets[a + 1]; i++) if (upTargets[i] == b) return upMid[i];
+        } else {
+            for (int i = downOffsets[b]; i < downOffsets[b + 1]; i++) if (downSources[i] == a) return downMid[i];
+        }
+        throw new IllegalStateException("missing hierarchy edge " + a + " -> " + b);
+    }
+
+    // -------------------------
+    // Index file
+    // -------------------------
+
+    /**
+     * Write the hierarchy so queries can start without preprocessing.
+     * Layout: int MAGIC | int n | int upCount | int downCount | int[n] rank
+     *         | up: offsets, targets, double weights, mids | down: same
+     */
+    public void save(Path file) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer buf = ByteBuffer.allocateDirect(1 << 20).order(ByteOrder.LITTLE_ENDIAN);
+            buf.putInt(MAGIC).putInt(n).putInt(upOffsets[n]).putInt(downOffsets[n]);
+
+            ReliabilityGraph.writeInts(ch, buf, rank);
+            ReliabilityGraph.writeInts(ch, buf, upOffsets);
+            ReliabilityGraph.writeInts(ch, buf, upTargets);
+            ReliabilityGraph.writeDoubles(ch, buf, upWeights);
+            ReliabilityGraph.writeInts(ch, buf, upMid);
+            ReliabilityGraph.writeInts(ch, buf, downOffsets);
+            ReliabilityGraph.writeInts(ch, buf, downSources);
+            ReliabilityGraph.writeDoubles(ch, buf, downWeights);
+            ReliabilityGraph.writeInts(ch, buf, downMid);
+            ReliabilityGraph.drain(ch, buf);
+        }
+    }
+
+    /**
+     * Load an index written by save (memory-mapped, no rebuilding).
+     */
+    public static ContractionHierarchy load(Path file) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (ch.size() < HEADER) throw new IOException("not a contraction hierarchy file: " + file);
+
+            ByteBuffer head = ch.map(FileChannel.MapMode.READ_ONLY, 0, HEADER).order(ByteOrder.LITTLE_ENDIAN);
+            if (head.getInt() != MAGIC) throw new IOException("not a contraction hierarchy file: " + file);
+            int n = head.getInt();
+            int up = head.getInt();
+            int down = head.getInt();
+            if (n < 0 || up < 0 || down < 0) throw new IOException("corrupt header: " + file);
+
+            long expected = HEADER + 4L * n + 2 * 4L * (n + 1) + 16L * up + 16L * down;
+            if (ch.size() != expected) throw new IOException("size mismatch: expected " + expected + " bytes, got " + ch.size());
+
+            int[] rank = new int[n];
+            int[] upOffsets = new int[n + 1], upTargets = new int[up], upMid = new int[up];
+            int[] downOffsets = new int[n + 1], downSources = new int[down], downMid = new int[down];
+            double[] upWeights = new double[up], downWeights = new double[down];
+
+            long pos = HEADER;
+            pos = ReliabilityGraph.readInts(ch, pos, rank);
+            pos = ReliabilityGraph.readInts(ch, pos, upOffsets);
+            pos = ReliabilityGraph.readInts(ch, pos, upTargets);
+            pos = ReliabilityGraph.readDoubles(ch, pos, upWeights);
+            pos = ReliabilityGraph.readInts(ch, pos, upMid);
+            pos = ReliabilityGraph.readInts(ch, pos, downOffsets);
+            pos = ReliabilityGraph.readInts(ch, pos, downSources);
+            pos = ReliabilityGraph.readDoubles(ch, pos, downWeights);
+            ReliabilityGraph.readInts(ch, pos, downMid);
+
+            try {
+                return of(n, rank, upOffsets, upTargets, upWeights, upMid,
+                        downOffsets, downSources, downWeights, downMid);
+            } catch (IllegalArgumentException ex) {
+                throw new IOException("corrupt hierarchy file: " + ex.getMessage(), ex);
+            }
+        }
+    }
+
+    /**
+     * Hierarchy from raw arrays, checked so that queries and path unpacking
+     * stay in range and terminate: ranks are a permutation of 0..n-1, every
+     * edge leads to a higher-ranked node and every shortcut middle is ranked
+     * below the node the edge is stored at.
+     */
+    private static ContractionHierarchy of(int n, int[] rank,
+                                           int[] upOffsets, int[] upTargets, double[] upWeights, int[] upMid,
+                                           int[] downOffsets, int[] downSources, double[] downWeights, int[] downMid) {
+        if (rank.length != n) throw new IllegalArgumentException("rank must have n entries");
+        boolean[] seen = new boolean[n];
+        for (int r : rank) {
+            if (r < 0 || r >= n || seen[r]) throw new IllegalArgumentException("ranks must be a permutation of 0..n-1");
+            seen[r] = true;
+        }
+        checkSide(n, rank, upOffsets, upTargets, upWeights, upMid, "up");
+        checkSide(n, rank, downOffsets, downSources, downWeights, downMid, "down");
+
+        return new ContractionHierarchy(n, rank, upOffsets, upTargets, upWeights, upMid,
+                downOffsets, downSources, downWeights, downMid);
+    }
+
+    private static void checkSide(int n, int[] rank, int[] offsets, int[] nodes, double[] weights, int[] mids, String side) {
+        if (offsets.length != n + 1 || offsets[0] != 0) throw new IllegalArgumentException(side + " offsets must have n+1 entries starting at 0");
+        int m = offsets[n];
+        if (nodes.length != m || weights.length != m || mids.length != m) {
+            throw new IllegalArgumentException(side + " edge arrays must have offsets[n] entries");
+        }
+        for (int v = 0; v < n; v++) {
+            if (offsets[v] > offsets[v + 1]) throw new IllegalArgumentException(side + " offsets must be non-decreasing");
+            for (int i = offsets[v]; i < offsets[v + 1]; i++) {
+                int x = nodes[i];
+                if (x < 0 || x >= n) throw new IllegalArgumentException(side + " edge node out of range: " + x);
+                if (rank[x] <= rank[v]) throw new IllegalArgumentException(side + " edge " + v + " - " + x + " does not lead up the hierarchy");
+                if (!(weights[i] >= 0)) throw new IllegalArgumentException("weights must be -log(p) >= 0");
+                int mid = mids[i];
+                if (mid != -1 && (mid < 0 || mid >= n || rank[mid] >= rank[v])) {
+                    throw new IllegalArgumentException(side + " shortcut middle out of range: " + mid);
+                }
+            }
+        }
+    }
+}
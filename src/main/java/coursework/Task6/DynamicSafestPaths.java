@@ -0,0 +1,270 @@
+package coursework.Task6;
+
+import java.util.*;
+
+/**
+ * @author Nishan Rai
+ * Safest-path tree from one source that is kept up to date while edge
+ * reliabilities change (dynamic SSSP, Ramalingam-Reps style).
+ *
+ * Why:
+ * - During a disaster road reliabilities change all the time. Rerunning
+ *   Dijkstra over the whole network after every change is wasteful when a
+ *   change usually affects a small part of the tree.
+ *
+ * Repair after updateEdge(u, v, p), with w = -log(p):
+ * - Weight decreased (road got safer): if dist[u] + w < dist[v], v improves;
+ *   a Dijkstra started from v only visits nodes whose distance improves.
+ * - Weight increased (road got less safe or closed) on a non-tree edge:
+ *   nothing changes.
+ * - Weight increased on a tree edge: only v's subtree can get worse. Each
+ *   node of the subtree takes its best distance through an in-edge from
+ *   outside the subtree, then Dijkstra runs inside the subtree only.
+ *
+ * Parallel u -> v edges are merged into one (the most reliable one).
+ *
+ * Time Complexity (per update):
+ * - O(A log A + edges touching A), A = nodes whose distance / parent changes
+ *   (plus v's subtree for an increase on a tree edge)
+ */
+public final class DynamicSafestPaths {
+
+    /**
+     * Growable list of (node, weight) links of one node.
+     */
+    private static final class Links {
+        int[] node = new int[4];
+        double[] w = new double[4];
+        int size;
+
+        int find(int other) {
+            for (int i = 0; i < size; i++) if (node[i] == other) return i;
+            return -1;
+        }
+
+        void set(int other, double weight) {
+            int i = find(other);
+            if (i >= 0) {
+                w[i] = weight;
+                return;
+            }
+            if (size == node.length) {
+                node = Arrays.copyOf(node, size * 2);
+                w = Arrays.copyOf(w, size * 2);
+            }
+            node[size] = other;
+            w[size++] = weight;
+        }
+
+        void remove(int other) {
+            int i = find(other);
+            if (i < 0) return;
+            size--;
+            node[i] = node[size];
+            w[i] = w[size];
+        }
+    }
+
+    private final int n;
+    private final int source;
+    private final Links[] out;
+    private final Links[] in;
+    private final double[] dist;
+    private final int[] parent;
+    private final IndexedDaryHeap heap;
+
+    // subtree marking for weight increases
+    private final boolean[] affected;
+    private final int[] affectedList;
+
+    /**
+     * Copy the graph into an updatable adjacency and compute the initial tree.
+     */
+    public DynamicSafestPaths(ReliabilityGraph g, int source) {
+        if (source < 0 || source >= g.n) throw new IllegalArgumentException("source out of range: " + source);
+        this.n = g.n;
+        this.source = source;
+
+        out = new Links[n];
+        in = new Links[n];
+        for (int v = 0; v < n; v++) {
+            out[v] = new Links();
+            in[v] = new Links();
+        }
+        for (int u = 0; u < n; u++) {
+            for (int i = g.offsets[u]; i < g.offsets[u + 1]; i++) {
+                int v = g.targets[i];
+                int k = out[u].find(v);
+                if (k >= 0 && out[u].w[k] <= g.weights[i]) continue;   // keep the most reliable link
+                out[u].set(v, g.weights[i]);
+                in[v].set(u, g.weights[i]);
+            }
+        }
+
+        dist = new double[n];
+        parent = new int[n];
+        heap = new IndexedDaryHeap(n);
+        affected = new boolean[n];
+        affectedList = new int[n];
+
+        Arrays.fill(dist, Double.POSITIVE_INFINITY);
+        Arrays.fill(parent, -1);
+        dist[source] = 0.0;
+        heap.pushOrDecrease(source, 0.0);
+        propagate();
+    }
+
+    public int source() {
+        return source;
+    }
+
+    /**
+     * Current reliability of the safest source -> v path (0 if unreachable).
+     */
+    public double reliability(int v) {
+        return Math.exp(-dist[v]);
+    }
+
+    /**
+     * Current safest source -> v path, or an empty list if unreachable.
+     */
+    public List<Integer> path(int v) {
+        if (Double.isInfinite(dist[v])) return List.of();
+        LinkedList<Integer> path = new LinkedList<>();
+        for (int x = v; x != -1; x = parent[x]) path.addFirst(x);
+        return path;
+    }
+
+    /**
+     * Snapshot of the whole current tree.
+     */
+    public SafestPathReliability.PathTree tree() {
+        double[] rel = new double[n];
+        int[] origin = new int[n];
+        for (int v = 0; v < n; v++) {
+            rel[v] = Math.exp(-dist[v]);
+            origin[v] = Double.isInfinite(dist[v]) ? -1 : source;
+        }
+        return new SafestPathReliability.PathTree(rel, parent.clone(), origin);
+    }
+
+    /**
+     * Set the reliability of road u -> v (adding it if new; p = 0 closes it)
+     * and repair the tree.
+     *
+     * @return number of nodes whose reliability changed
+     */
+    public int updateEdge(int u, int v, double prob) {
+        if (u < 0 || u >= n || v < 0 || v >= n) throw new IllegalArgumentException("node out of range");
+        if (!(prob >= 0 && prob <= 1)) throw new IllegalArgumentException("reliability must be in [0, 1]: " + prob);
+        if (u == v) return 0;
+
+        int k = out[u].find(v);
+        double oldW = k >= 0 ? out[u].w[k] : Double.POSITIVE_INFINITY;
+        double newW = prob > 0 ? -Math.log(prob) : Double.POSITIVE_INFINITY;
+
+        if (prob > 0) {
+            out[u].set(v, newW);
+            in[v].set(u, newW);
+        } else {
+            out[u].remove(v);
+            in[v].remove(u);
+        }
+
+        if (newW < oldW) return decrease(u, v, newW);
+        if (newW > oldW && parent[v] == u) return increase(v);
+        return 0;
+    }
+
+    /**
+     * Edge u -> v got lighter: push the improvement forward from v.
+     */
+    private int decrease(int u, int v, double w) {
+        if (!(dist[u] + w < dist[v])) return 0;
+
+        dist[v] = dist[u] + w;
+        parent[v] = u;
+        heap.pushOrDecrease(v, dist[v]);
+        return propagate();   // only improved nodes enter the heap
+    }
+
+    /**
+     * Tree edge into v got heavier (or removed): rebuild v's subtree.
+     */
+    private int increase(int v) {
+        // ---- collect the subtree of v
+        int count = 0;
+        affected[v] = true;
+        affectedList[count++] = v;
+        for (int head = 0; head < count; head++) {
+            int x = affectedList[head];
+            Links o = out[x];
+            for (int i = 0; i < o.size; i++) {
+                int y = o.node[i];
+                if (parent[y] == x && !affected[y]) {
+                    affected[y] = true;
+                    affectedList[count++] = y;
+                }
+            }
+        }
+
+        // ---- best entry into each subtree node from outside the subtree
+        double[] old = new double[count];
+        for (int j = 0; j < count; j++) {
+            int x = affectedList[j];
+            old[j] = dist[x];
+
+            double best = Double.POSITIVE_INFINITY;
+            int bestParent = -1;
+            Links li = in[x];
+            for (int i = 0; i < li.size; i++) {
+                int p = li.node[i];
+                if (affected[p]) continue;
+                double d = dist[p] + li.w[i];
+                if (d < best) {
+                    best = d;
+                    bestParent = p;
+                }
+            }
+            dist[x] = best;
+            parent[x] = bestParent;
+        }
+        for (int j = 0; j < count; j++) {
+            int x = affectedList[j];
+            affected[x] = false;
+            if (dist[x] < Double.POSITIVE_INFINITY) heap.pushOrDecrease(x, dist[x]);
+        }
+
+        // ---- settle the subtree (only its nodes can improve from here)
+        propagate();
+
+        int changed = 0;
+        for (int j = 0; j < count; j++) {
+            if (dist[affectedList[j]] != old[j]) changed++;
+        }
+        return changed;
+    }
+
+    /**
+     * Dijkstra from the nodes currently in the heap. Returns nodes settled.
+     */
+    private int propagate() {
+        int settled = 0;
+        while (!heap.isEmpty()) {
+            int x = heap.pollMin();
+            settled++;
+            double dx = dist[x];
+            Links o = out[x];
+            for (int i = 0; i < o.size; i++) {
+                int y = o.node[i];
+                double nd = dx + o.w[i];
+                if (nd < dist[y]) {
+                    dist[y] = nd;
+                    parent[y] = x;
+                    heap.pushOrDecrease(y, nd);
+                }
+            }
+        }
+        return settled;
+    }
+}
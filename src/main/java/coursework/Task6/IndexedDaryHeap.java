@@ -0,0 +1,153 @@
+package coursework.Task6;
+
+import java.util.*;
+
+/**
+ * @author Nishan Rai
+ * Indexed d-ary min-heap of int node ids keyed by double distances.
+ *
+ * Why (compared to PriorityQueue<Integer>):
+ * - No boxing: the heap is a plain int[] of node ids, keys live in a double[].
+ * - True decrease-key: pos[] tells where each node sits, so an improved
+ *   distance moves the node up in place instead of adding a duplicate.
+ *   The heap never holds more than n entries.
+ * - Keys are stored in the heap itself, so ordering cannot break when the
+ *   caller's dist[] changes.
+ * - d = 4 keeps the tree shallow (fewer swaps on decrease-key) and the
+ *   children of a node sit next to each other in memory.
+ *
+ * Time Complexity:
+ * - push / decreaseKey: O(log_d n)
+ * - pollMin: O(d log_d n)
+ */
+final class IndexedDaryHeap {
+
+    private static final int D = 4;
+
+    private final int[] heap;     // heap slot -> node
+    private final int[] pos;      // node -> heap slot, -1 if absent
+    private final double[] key;   // node -> current key
+    private int size;
+
+    IndexedDaryHeap(int n) {
+        heap = new int[n];
+        pos = new int[n];
+        key = new double[n];
+        Arrays.fill(pos, -1);
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean contains(int node) {
+        return pos[node] >= 0;
+    }
+
+    /**
+     * Smallest key in the heap (+infinity when empty).
+     */
+    double minKey() {
+        return size == 0 ? Double.POSITIVE_INFINITY : key[heap[0]];
+    }
+
+    /**
+     * Current key of a node in the heap.
+     */
+    double key(int node) {
+        return key[node];
+    }
+
+    /**
+     * Insert the node, or lower its key if it is already in the heap.
+     * A larger key than the current one is ignored.
+     */
+    void pushOrDecrease(int node, double k) {
+        int i = pos[node];
+        if (i < 0) {
+            i = size++;
+            heap[i] = node;
+            pos[node] = i;
+            key[node] = k;
+            siftUp(i);
+        } else if (k < key[node]) {
+            key[node] = k;
+            siftUp(i);
+        }
+    }
+
+    /**
+     * Remove and return the node with the smallest key.
+     */
+    int pollMin() {
+        if (size == 0) throw new NoSuchElementException("heap is empty");
+
+        int min = heap[0];
+        pos[min] = -1;
+
+        int last = heap[--size];
+        if (size > 0) {
+            heap[0] = last;
+            pos[last] = 0;
+            siftDown(0);
+        }
+        return min;
+    }
+
+    /**
+     * Empty the heap in O(size), so one instance can serve many queries.
+     */
+    void clear() {
+        for (int i = 0; i < size; i++) pos[heap[i]] = -1;
+        size = 0;
+    }
+
+    private void siftUp(int i) {
+        int node = heap[i];
+        double k = key[node];
+
+        while (i > 0) {
+            int parent = (i - 1) / D;
+            int p = heap[parent];
+            if (key[p] <= k) break;
+            heap[i] = p;
+            pos[p] = i;
+            i = parent;
+        }
+        heap[i] = node;
+        pos[node] = i;
+    }
+
+    private void siftDown(int i) {
+        int node = heap[i];
+        double k = key[node];
+
+        while (true) {
+            int first = i * D + 1;
+            if (first >= size) break;
+
+            // smallest of up to D children
+            int best = first;
+            double bestKey = key[heap[first]];
+            int end = Math.min(first + D, size);
+            for (int c = first + 1; c < end; c++) {
+                double ck = key[heap[c]];
+                if (ck < bestKey) {
+                    best = c;
+                    bestKey = ck;
+                }
+            }
+            if (bestKey >= k) break;
+
+            heap[i] = heap[best];
+            pos[heap[i]] = i;
+            i = best;
+        }
+        heap[i] = node;
+        pos[node] = i;
+    }
+}
@@ -0,0 +1,441 @@
+package coursework.Task6;
+
+import java.util.*;
+
+/**
+ * @author Nishan Rai
+ * K most reliable routes to one destination (alternatives for convoys).
+ *
+ * Two flavours, both on the -log(p) weights of a ReliabilityGraph:
+ *
+ * 1) yen(src, k): the k safest loopless paths (Yen's algorithm with
+ *    Lawler's rule). Paths may share roads.
+ *    - Every candidate deviates from an accepted path at a "spur" node; the
+ *      part after the spur is a shortest path that avoids the root nodes
+ *      and the next-edges already used by accepted paths with the same root.
+ *    - The reverse shortest-path tree to dst is computed once (constructor):
+ *      * if the tree route from the spur avoids everything blocked, it is the
+ *        spur path directly (no search at all);
+ *      * otherwise an A* search runs with the tree distances as heuristic
+ *        (exact in the unblocked graph), so it goes almost straight to dst.
+ *    - Lawler: a path found at spur index i only spawns spurs from i onwards.
+ *    - Once there are enough candidates to finish, searches that cannot beat
+ *      the last one still needed are cut off early.
+ *
+ * 2) edgeDisjoint(src, k): up to k paths that share no road, chosen to
+ *    maximise the product of their reliabilities (min-cost flow with unit
+ *    capacities, successive shortest paths with Johnson potentials).
+ *
+ * Time Complexity:
+ * - constructor: O((V + E) log V)
+ * - yen: O(k * L * S), L = path length, S = cost of one spur search
+ *   (often O(L) thanks to the tree shortcut)
+ * - edgeDisjoint: O(k * (V + E) log V)
+ */
+public final class KSafestPaths {
+
+    private final ReliabilityGraph g;
+    private final int dst;
+
+    // reverse CSR with original edge ids
+    private final int[] edgeSource;
+    private final int[] inOffsets;
+    private final int[] inEdges;
+
+    // shortest-path tree towards dst
+    private final double[] toDst;   // -log reliability of the best v -> dst path
+    private final int[] next;       // successor of v on that path, -1 at dst / unreachable
+
+    /**
+     * Precompute the reverse graph and the safest-path tree into dst.
+     */
+    public KSafestPaths(ReliabilityGraph g, int dst) {
+        if (dst < 0 || dst >= g.n) throw new IllegalArgumentException("dst out of range: " + dst);
+        this.g = g;
+        this.dst = dst;
+
+        int n = g.n, m = g.edgeCount();
+        edgeSource = new int[m];
+        inOffsets = new int[n + 1];
+        for (int u = 0; u < n; u++) {
+            for (int i = g.offsets[u]; i < g.offsets[u + 1]; i++) {
+                edgeSource[i] = u;
+                inOffsets[g.targets[i] + 1]++;
+            }
+        }
+        for (int v = 0; v < n; v++) inOffsets[v + 1] += inOffsets[v];
+        inEdges = new int[m];
+        int[] fill = Arrays.copyOf(inOffsets, n);
+        for (int i = 0; i < m; i++) inEdges[fill[g.targets[i]]++] = i;
+
+        // ---- Dijkstra from dst over reversed edges
+        toDst = new double[n];
+        next = new int[n];
+        Arrays.fill(toDst, Double.POSITIVE_INFINITY);
+        Arrays.fill(next, -1);
+        toDst[dst] = 0.0;
+
+        IndexedDaryHeap pq = new IndexedDaryHeap(n);
+        pq.pushOrDecrease(dst, 0.0);
+        while (!pq.isEmpty()) {
+            int v = pq.pollMin();
+            for (int j = inOffsets[v]; j < inOffsets[v + 1]; j++) {
+                int e = inEdges[j];
+                int u = edgeSource[e];
+                double nd = toDst[v] + g.weights[e];
+                if (nd < toDst[u]) {
+                    toDst[u] = nd;
+                    next[u] = v;
+                    pq.pushOrDecrease(u, nd);
+                }
+            }
+        }
+    }
+
+    // -------------------------
+    // Yen / Lawler
+    // -------------------------
+
+    /**
+     * A path with the cost of every prefix (prefix[i] = cost of nodes[0..i]).
+     */
+    private static final class Route {
+        final int[] nodes;
+        final double[] prefix;
+        final int deviation;   // spur index it was created at (Lawler)
+
+        Route(int[] nodes, double[] prefix, int deviation) {
+            this.nodes = nodes;
+            this.prefix = prefix;
+            this.deviation = deviation;
+        }
+
+        double cost() {
+            return prefix[prefix.length - 1];
+        }
+    }
+
+    /**
+     * int[] with value equality, for de-duplicating candidates.
+     */
+    private static final class Key {
+        final int[] a;
+        final int hash;
+
+        Key(int[] a) {
+            this.a = a;
+            this.hash = Arrays.hashCode(a);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key && Arrays.equals(a, ((Key) o).a);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /**
+     * The k safest loopless src -> dst paths, safest first (fewer if the
+     * network has fewer).
+     */
+    public List<SafestPathReliability.Result> yen(int src, int k) {
+        if (k <= 0) throw new IllegalArgumentException("k must be positive");
+        List<SafestPathReliability.Result> out = new ArrayList<>();
+        if (Double.isInfinite(toDst[src])) return out;
+
+        List<Route> accepted = new ArrayList<>();
+        PriorityQueue<Route> candidates = new PriorityQueue<>(Comparator.comparingDouble(Route::cost));
+        Set<Key> seen = new HashSet<>();
+
+        Route first = treeRoute(new int[]{src}, new double[]{0.0}, 0);
+        candidates.add(first);
+        seen.add(new Key(first.nodes));
+
+        int n = g.n;
+        boolean[] blockedNode = new boolean[n];
+        boolean[] blockedNext = new boolean[n];
+        int[] blockedNextList = new int[Math.max(1, k)];
+        SafestPathReliability.Workspace ws = new SafestPathReliability.Workspace(n);
+
+        while (!candidates.isEmpty() && accepted.size() < k) {
+            Route p = candidates.poll();
+            accepted.add(p);
+            if (accepted.size() == k) break;
+
+            double limit = costLimit(candidates, k - accepted.size());
+
+            int[] nodes = p.nodes;
+            for (int i = 0; i < p.deviation; i++) blockedNode[nodes[i]] = true;
+
+            for (int i = p.deviation; i < nodes.length - 1; i++) {
+                int spur = nodes[i];
+
+                // ---- next-edges used by accepted paths with the same root
+                int blockedCount = 0;
+                for (Route a : accepted) {
+                    if (a.nodes.length > i + 1 && sameRoot(a.nodes, nodes, i)) {
+                        int x = a.nodes[i + 1];
+                        if (!blockedNext[x]) {
+                            blockedNext[x] = true;
+                            if (blockedCount == blockedNextList.length) {
+                                blockedNextList = Arrays.copyOf(blockedNextList, blockedCount * 2);
+                            }
+                            blockedNextList[blockedCount++] = x;
+                        }
+                    }
+                }
+
+                Route cand = null;
+                if (p.prefix[i] + toDst[spur] <= limit) cand = spurRoute(nodes, p.prefix, i, blockedNode, blockedNext, limit, ws);
+                if (cand != null && cand.cost() <= limit && seen.add(new Key(cand.nodes))) candidates.add(cand);
+
+                for (int j = 0; j < blockedCount; j++) blockedNext[blockedNextList[j]] = false;
+                blockedNode[spur] = true;   // root grows by the spur node
+            }
+            for (int x : nodes) blockedNode[x] = false;
+        }
+
+        for (Route r : accepted) out.add(toResult(r));
+        return out;
+    }
+
+    /**
+     * Cost of the need-th cheapest candidate (+infinity if there are fewer):
+     * anything more expensive can never be accepted.
+     */
+    private static double costLimit(PriorityQueue<Route> candidates, int need) {
+        if (candidates.size() < need) return Double.POSITIVE_INFINITY;
+        double[] costs = new double[candidates.size()];
+        int i = 0;
+        for (Route r : candidates) costs[i++] = r.cost();
+        Arrays.sort(costs);
+        return costs[need - 1];
+    }
+
+    private static boolean sameRoot(int[] a, int[] b, int i) {
+        for (int j = 0; j <= i; j++) if (a[j] != b[j]) return false;
+        return true;
+    }
+
+    /**
+     * Root nodes[0..i] + best spur path from nodes[i] avoiding blocked nodes
+     * and the blocked first hops. Null if dst cannot be reached.
+     */
+    private Route spurRoute(int[] nodes, double[] prefix, int i, boolean[] blockedNode, boolean[] blockedNext,
+                            double limit, SafestPathReliability.Workspace ws) {
+        int spur = nodes[i];
+        int[] root = Arrays.copyOf(nodes, i + 1);
+        double[] rootCost = Arrays.copyOf(prefix, i + 1);
+
+        // ---- shortcut: the cached tree route already avoids everything blocked
+        if (next[spur] >= 0 && !blockedNext[next[spur]]) {
+            boolean clear = true;
+            for (int v = next[spur]; v != -1; v = next[v]) {
+                if (blockedNode[v]) {
+                    clear = false;
+                    break;
+                }
+            }
+            if (clear) return treeRoute(root, rootCost, i);
+        }
+
+        // ---- A* from the spur, heuristic = distance to dst in the full graph
+        double budget = limit - prefix[i];
+        ws.reset();
+        double[] gCost = ws.dist;
+        IndexedDaryHeap pq = ws.heap;
+        ws.reach(spur, 0.0, -1);
+        pq.pushOrDecrease(spur, toDst[spur]);
+
+        boolean found = false;
+        while (!pq.isEmpty() && pq.minKey() <= budget) {
+            int u = pq.pollMin();
+            if (u == dst) {
+                found = true;
+                break;
+            }
+            for (int e = g.offsets[u]; e < g.offsets[u + 1]; e++) {
+                int v = g.targets[e];
+                if (blockedNode[v] || Double.isInfinite(toDst[v])) continue;
+                if (u == spur && blockedNext[v]) continue;
+
+                double nd = gCost[u] + g.weights[e];
+                if (nd < gCost[v]) {
+                    ws.reach(v, nd, u);
+                    pq.pushOrDecrease(v, nd + toDst[v]);
+                }
+            }
+        }
+        if (!found) return null;
+
+        int len = 0;
+        for (int v = dst; v != spur; v = ws.parent[v]) len++;
+        int[] outNodes = Arrays.copyOf(root, i + 1 + len);
+        double[] outCost = Arrays.copyOf(rootCost, i + 1 + len);
+        int j = i + len;
+        for (int v = dst; v != spur; v = ws.parent[v], j--) {
+            outNodes[j] = v;
+            outCost[j] = rootCost[i] + gCost[v];
+        }
+        return new Route(outNodes, outCost, i);
+    }
+
+    /**
+     * Root followed by the cached tree route from its last node to dst.
+     */
+    private Route treeRoute(int[] root, double[] rootCost, int deviation) {
+        int last = root[root.length - 1];
+        int len = 0;
+        for (int v = next[last]; v != -1; v = next[v]) len++;
+
+        int[] nodes = Arrays.copyOf(root, root.length + len);
+        double[] cost = Arrays.copyOf(rootCost, root.length + len);
+        double base = rootCost[root.length - 1] + toDst[last];
+        int j = root.length;
+        for (int v = next[last]; v != -1; v = next[v], j++) {
+            nodes[j] = v;
+            cost[j] = base - toDst[v];
+        }
+        return new Route(nodes, cost, deviation);
+    }
+
+    private static SafestPathReliability.Result toResult(Route r) {
+        List<Integer> path = new ArrayList<>(r.nodes.length);
+        for (int v : r.nodes) path.add(v);
+        return new SafestPathReliability.Result(Math.exp(-r.cost()), path);
+    }
+
+    // -------------------------
+    // Edge-disjoint paths
+    // -------------------------
+
+    /**
+     * Up to k src -> dst paths with no road in common, maximising the
+     * product of their reliabilities. Returned safest first. If src is dst
+     * the only path is the empty walk [src], returned once (as yen does).
+     */
+    public List<SafestPathReliability.Result> edgeDisjoint(int src, int k) {
+        if (k <= 0) throw new IllegalArgumentException("k must be positive");
+        if (src == dst) {
+            List<SafestPathReliability.Result> single = new ArrayList<>();
+            single.add(new SafestPathReliability.Result(1.0, new ArrayList<>(List.of(src))));
+            return single;
+        }
+        int n = g.n, m = g.edgeCount();
+        boolean[] used = new boolean[m];
+
+        // potentials start at 0 (all weights >= 0)
+        double[] pi = new double[n];
+        double[] dist = new double[n];
+        int[] viaEdge = new int[n];        // edge id used to reach v
+        boolean[] viaBackward = new boolean[n];
+        IndexedDaryHeap pq = new IndexedDaryHeap(n);
+
+        int flow = 0;
+        while (flow < k) {
+            Arrays.fill(dist, Double.POSITIVE_INFINITY);
+            Arrays.fill(viaEdge, -1);
+            dist[src] = 0.0;
+            pq.pushOrDecrease(src, 0.0);
+
+            // ---- Dijkstra on the residual graph with reduced costs
+            while (!pq.isEmpty()) {
+                int u = pq.pollMin();
+                double du = dist[u];
+
+                for (int e = g.offsets[u]; e < g.offsets[u + 1]; e++) {
+                    if (used[e]) continue;
+                    int v = g.targets[e];
+                    double nd = du + Math.max(0.0, g.weights[e] + pi[u] - pi[v]);
+                    if (nd < dist[v]) {
+                        dist[v] = nd;
+                        viaEdge[v] = e;
+                        viaBackward[v] = false;
+                        pq.pushOrDecrease(v, nd);
+                    }
+                }
+                for (int j = inOffsets[u]; j < inOffsets[u + 1]; j++) {
+                    int e = inEdges[j];
+                    if (!used[e]) continue;          // only used edges can be undone
+                    int v = edgeSource[e];
+                    double nd = du + Math.max(0.0, -g.weights[e] + pi[u] - pi[v]);
+                    if (nd < dist[v]) {
+                        dist[v] = nd;
+                        viaEdge[v] = e;
+                        viaBackward[v] = true;
+                        pq.pushOrDecrease(v, nd);
+                    }
+                }
+            }
+            if (Double.isInfinite(dist[dst])) break;
+
+            // ---- augment one unit along the path
+            for (int v = dst; v != src; ) {
+                int e = viaEdge[v];
+                if (viaBackward[v]) {
+                    used[e] = false;
+                    v = g.targets[e];
+                } else {
+                    used[e] = true;
+                    v = edgeSource[e];
+                }
+            }
+            flow++;
+
+            double cap = dist[dst];
+            for (int v = 0; v < n; v++) pi[v] += Math.min(dist[v], cap);
+        }
+
+        return decompose(src, used, flow);
+    }
+
+    /**
+     * Split the unit flow into flow src -> dst paths (dropping any cycles).
+     */
+    private List<SafestPathReliability.Result> decompose(int src, boolean[] used, int flow) {
+        int[] cursor = Arrays.copyOf(g.offsets, g.n);
+        int[] posInWalk = new int[g.n];
+        Arrays.fill(posInWalk, -1);
+
+        List<SafestPathReliability.Result> out = new ArrayList<>();
+        for (int f = 0; f < flow; f++) {
+            List<Integer> walk = new ArrayList<>();
+            List<Double> cost = new ArrayList<>();
+            walk.add(src);
+            cost.add(0.0);
+            posInWalk[src] = 0;
+
+            int u = src;
+            while (u != dst) {
+                int e = cursor[u];
+                while (e < g.offsets[u + 1] && !used[e]) e++;
+                cursor[u] = e + 1;
+                used[e] = false;
+
+                int v = g.targets[e];
+                double c = cost.get(cost.size() - 1) + g.weights[e];
+                if (posInWalk[v] >= 0) {
+                    // cycle back to v: cut it out of the walk
+                    int keep = posInWalk[v] + 1;
+                    for (int j = keep; j < walk.size(); j++) posInWalk[walk.get(j)] = -1;
+                    walk.subList(keep, walk.size()).clear();
+                    cost.subList(keep, cost.size()).clear();
+                } else {
+                    posInWalk[v] = walk.size();
+                    walk.add(v);
+                    cost.add(c);
+                }
+                u = v;
+            }
+            for (int v : walk) posInWalk[v] = -1;
+
+            out.add(new SafestPathReliability.Result(Math.exp(-cost.get(cost.size() - 1)), walk));
+        }
+        out.sort((a, b) -> Double.compare(b.reliability, a.reliability));
+        return out;
+    }
+}
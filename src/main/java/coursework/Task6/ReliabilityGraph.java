@@ -0,0 +1,241 @@
+package coursework.Task6;
+
+import coursework.graph.EdgeListFile;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * @author Nishan Rai
+ * Immutable CSR (compressed sparse row) graph for safest-path queries.
+ *
+ * Layout:
+ * - The edges of node u are targets[offsets[u] .. offsets[u+1]-1].
+ * - weights[i] = -log(p) of edge i, computed once when the graph is built,
+ *   so Dijkstra never calls Math.log while relaxing edges.
+ * - Edges with p = 0 are dropped (they can never be on a path).
+ *
+ * Compared to List<List<Edge>>: three flat arrays instead of one object
+ * per edge and one ArrayList per node, so a million-node road network
+ * takes a fraction of the heap and is scanned sequentially.
+ *
+ * File format (little-endian), see save / load:
+ *   int MAGIC | int n | int m | int[n+1] offsets | int[m] targets | double[m] weights
+ *
+ * Time Complexity:
+ * - build: O(V + E), save / load: O(V + E)
+ * Space Complexity: O(V + E)
+ */
+public final class ReliabilityGraph {
+
+    private static final int MAGIC = 0x52475231;     // "RGR1"
+    private static final int HEADER = 12;
+    private static final long MAP_CHUNK = 1L << 30;   // bytes mapped at a time
+
+    public final int n;
+    public final int[] offsets;
+    public final int[] targets;
+    public final double[] weights;
+
+    private ReliabilityGraph(int n, int[] offsets, int[] targets, double[] weights) {
+        this.n = n;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+    }
+
+    /**
+     * Build from the adjacency list used by SafestPathReliability.safestPath.
+     */
+    public static ReliabilityGraph fromAdjacency(int n, List<List<SafestPathReliability.Edge>> g) {
+        int[] offsets = new int[n + 1];
+        for (int u = 0; u < n; u++) {
+            int deg = 0;
+            for (SafestPathReliability.Edge e : g.get(u)) {
+                checkProb(e.prob);
+                if (e.prob > 0) deg++;
+            }
+            offsets[u + 1] = Math.addExact(offsets[u], deg);
+        }
+
+        int m = offsets[n];
+        int[] targets = new int[m];
+        double[] weights = new double[m];
+        int i = 0;
+        for (int u = 0; u < n; u++) {
+            for (SafestPathReliability.Edge e : g.get(u)) {
+                if (e.prob <= 0) continue;
+                if (e.to < 0 || e.to >= n) throw new IllegalArgumentException("edge target out of range: " + e.to);
+                targets[i] = e.to;
+                weights[i] = -Math.log(e.prob);
+                i++;
+            }
+        }
+        return new ReliabilityGraph(n, offsets, targets, weights);
+    }
+
+    /**
+     * Build from a memory-mapped EdgeListFile (values = reliabilities in
+     * [0, 1]). Edges are read from the mapping in two passes, so only the
+     * CSR arrays end up on the heap.
+     */
+    public static ReliabilityGraph fromEdgeList(EdgeListFile file) {
+        int n = file.n;
+        int[] offsets = new int[n + 1];
+        file.forEachEdge((u, v, p) -> {
+            checkProb(p);
+            if (p > 0) offsets[u + 1]++;
+        });
+        for (int u = 0; u < n; u++) offsets[u + 1] += offsets[u];
+
+        int m = offsets[n];
+        int[] targets = new int[m];
+        double[] weights = new double[m];
+        int[] fill = Arrays.copyOf(offsets, n);
+        file.forEachEdge((u, v, p) -> {
+            if (p <= 0) return;
+            int i = fill[u]++;
+            targets[i] = v;
+            weights[i] = -Math.log(p);
+        });
+        return new ReliabilityGraph(n, offsets, targets, weights);
+    }
+
+    /**
+     * Wrap ready-made CSR arrays (weights already -log(p)). The arrays are not copied.
+     */
+    public static ReliabilityGraph of(int n, int[] offsets, int[] targets, double[] weights) {
+        if (offsets.length != n + 1 || offsets[0] != 0) throw new IllegalArgumentException("offsets must have n+1 entries starting at 0");
+        int m = offsets[n];
+        if (targets.length != m || weights.length != m) throw new IllegalArgumentException("targets/weights must have offsets[n] entries");
+        for (int u = 0; u < n; u++) {
+            if (offsets[u] > offsets[u + 1]) throw new IllegalArgumentException("offsets must be non-decreasing");
+        }
+        for (int i = 0; i < m; i++) {
+            if (targets[i] < 0 || targets[i] >= n) throw new IllegalArgumentException("edge target out of range: " + targets[i]);
+            if (!(weights[i] >= 0)) throw new IllegalArgumentException("weights must be -log(p) >= 0");
+        }
+        return new ReliabilityGraph(n, offsets, targets, weights);
+    }
+
+    public int edgeCount() {
+        return offsets[n];
+    }
+
+    /**
+     * Reliability p of edge i (exp of the stored weight).
+     */
+    public double prob(int i) {
+        return Math.exp(-weights[i]);
+    }
+
+    // -------------------------
+    // Binary file
+    // -------------------------
+
+    /**
+     * Write the graph so it can be loaded later without rebuilding.
+     */
+    public void save(Path file) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer buf = ByteBuffer.allocateDirect(1 << 20).order(ByteOrder.LITTLE_ENDIAN);
+            buf.putInt(MAGIC).putInt(n).putInt(edgeCount());
+
+            writeInts(ch, buf, offsets);
+            writeInts(ch, buf, targets);
+            writeDoubles(ch, buf, weights);
+            drain(ch, buf);
+        }
+    }
+
+    /**
+     * Load a graph written by save. The file is memory-mapped and copied
+     * straight into the arrays (no parsing, no per-edge objects).
+     */
+    public static ReliabilityGraph load(Path file) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (ch.size() < HEADER) throw new IOException("not a reliability graph file: " + file);
+
+            ByteBuffer head = ch.map(FileChannel.MapMode.READ_ONLY, 0, HEADER).order(ByteOrder.LITTLE_ENDIAN);
+            if (head.getInt() != MAGIC) throw new IOException("not a reliability graph file: " + file);
+            int n = head.getInt();
+            int m = head.getInt();
+            if (n < 0 || m < 0) throw new IOException("corrupt header: " + file);
+
+            long expected = HEADER + 4L * (n + 1) + 4L * m + 8L * m;
+            if (ch.size() != expected) throw new IOException("size mismatch: expected " + expected + " bytes, got " + ch.size());
+
+            int[] offsets = new int[n + 1];
+            int[] targets = new int[m];
+            double[] weights = new double[m];
+
+            long pos = HEADER;
+            pos = readInts(ch, pos, offsets);
+            pos = readInts(ch, pos, targets);
+            readDoubles(ch, pos, weights);
+
+            try {
+                return of(n, offsets, targets, weights);
+            } catch (IllegalArgumentException ex) {
+                throw new IOException("corrupt graph file: " + ex.getMessage(), ex);
+            }
+        }
+    }
+
+    // helpers shared with ContractionHierarchy's index file
+
+    static void writeInts(FileChannel ch, ByteBuffer buf, int[] a) throws IOException {
+        for (int x : a) {
+            if (buf.remaining() < 4) drain(ch, buf);
+            buf.putInt(x);
+        }
+    }
+
+    static void writeDoubles(FileChannel ch, ByteBuffer buf, double[] a) throws IOException {
+        for (double x : a) {
+            if (buf.remaining() < 8) drain(ch, buf);
+            buf.putDouble(x);
+        }
+    }
+
+    static void drain(FileChannel ch, ByteBuffer buf) throws IOException {
+        buf.flip();
+        while (buf.hasRemaining()) ch.write(buf);
+        buf.clear();
+    }
+
+    static long readInts(FileChannel ch, long pos, int[] dst) throws IOException {
+        int done = 0;
+        while (done < dst.length) {
+            int len = (int) Math.min(dst.length - done, MAP_CHUNK / 4);
+            MappedByteBuffer map = ch.map(FileChannel.MapMode.READ_ONLY, pos, 4L * len);
+            map.order(ByteOrder.LITTLE_ENDIAN).asIntBuffer().get(dst, done, len);
+            done += len;
+            pos += 4L * len;
+        }
+        return pos;
+    }
+
+    static long readDoubles(FileChannel ch, long pos, double[] dst) throws IOException {
+        int done = 0;
+        while (done < dst.length) {
+            int len = (int) Math.min(dst.length - done, MAP_CHUNK / 8);
+            MappedByteBuffer map = ch.map(FileChannel.MapMode.READ_ONLY, pos, 8L * len);
+            map.order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer().get(dst, done, len);
+            done += len;
+            pos += 8L * len;
+        }
+        return pos;
+    }
+
+    private static void checkProb(double p) {
+        if (!(p >= 0 && p <= 1)) throw new IllegalArgumentException("reliability must be in [0, 1]: " + p);
+    }
+}
@@ -1,6 +1,8 @@
 package coursework.Task6;
 
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
 
 /**
  * @author Nishan Rai
@@ -18,6 +20,20 @@ import java.util.*;
  *
  * Algorithm:
  * - Use Dijkstra on transformed weights.
+ * - The frontier is an IndexedDaryHeap (primitive ids, real decrease-key),
+ *   so each node is in the queue at most once.
+ *
+ * CSR variant:
+ * - safestPath(ReliabilityGraph, ...) runs on flat arrays with the -log(p)
+ *   weights precomputed, and reuses a Workspace (dist / parent / heap) across
+ *   queries, so a query allocates nothing except the returned path.
+ *
+ * Planning queries (CSR):
+ * - safestTree(g, src): one Dijkstra run, reliability + parent of every node.
+ * - safestTree(g, sources[]): multi-source run (all depots start at 0), so
+ *   each node gets the most reliable route from its best depot.
+ * - manyToMany(g, sources, targets): one run per source, stopped once every
+ *   target is settled; sources run in parallel over the shared read-only graph.
  *
  * Time Complexity: O((V + E) log V)
  * Space Complexity: O(V + E)
@@ -46,6 +62,76 @@ public final class SafestPathReliability {
         }
     }
 
+    /**
+     * Reusable per-thread search state for the CSR queries.
+     * Only the nodes touched by the previous query are reset, so a short
+     * query on a huge graph does not pay O(V) for clearing.
+     */
+    public static final class Workspace {
+        final double[] dist;
+        final int[] parent;
+        final IndexedDaryHeap heap;
+        private final int[] touched;
+        private int touchedCount;
+
+        public Workspace(int n) {
+            dist = new double[n];
+            parent = new int[n];
+            heap = new IndexedDaryHeap(n);
+            touched = new int[n];
+            Arrays.fill(dist, Double.POSITIVE_INFINITY);
+            Arrays.fill(parent, -1);
+        }
+
+        public int capacity() {
+            return dist.length;
+        }
+
+        /**
+         * Set dist / parent of v, remembering v for the next reset.
+         */
+        void reach(int v, double d, int p) {
+            if (dist[v] == Double.POSITIVE_INFINITY) touched[touchedCount++] = v;
+            dist[v] = d;
+            parent[v] = p;
+        }
+
+        void reset() {
+            for (int i = 0; i < touchedCount; i++) {
+                int v = touched[i];
+                dist[v] = Double.POSITIVE_INFINITY;
+                parent[v] = -1;
+            }
+            touchedCount = 0;
+            heap.clear();
+        }
+    }
+
+    /**
+     * Shortest-path tree of a one-to-all or multi-source run.
+     */
+    public static final class PathTree {
+        public final double[] reliability;  // 0 if unreachable
+        public final int[] parent;          // -1 for sources and unreachable nodes
+        public final int[] origin;          // source the node's route starts at, -1 if unreachable
+
+        public PathTree(double[] reliability, int[] parent, int[] origin) {
+            this.reliability = reliability;
+            this.parent = parent;
+            this.origin = origin;
+        }
+
+        /**
+         * Route from the node's origin to v, or an empty list if unreachable.
+         */
+        public List<Integer> path(int v) {
+            if (origin[v] < 0) return List.of();
+            LinkedList<Integer> path = new LinkedList<>();
+            for (int x = v; x != -1; x = parent[x]) path.addFirst(x);
+            return path;
+        }
+    }
+
     /**
      * Finds safest path by maximum reliability.
      *
@@ -64,12 +150,12 @@ public final class SafestPathReliability {
 
         dist[src] = 0.0;
 
-        // pq stores nodes, sorted by smallest dist
-        PriorityQueue<Integer> pq = new PriorityQueue<>(Comparator.comparingDouble(u -> dist[u]));
-        pq.add(src);
+        // heap holds each reached node once, keyed by its tentative dist
+        IndexedDaryHeap pq = new IndexedDaryHeap(n);
+        pq.pushOrDecrease(src, 0.0);
 
         while (!pq.isEmpty()) {
-            int u = pq.poll();
+            int u = pq.pollMin();
             if (u == dst) break;
 
             for (Edge e : g.get(u)) {
@@ -79,7 +165,7 @@ public final class SafestPathReliability {
                 if (dist[u] + w < dist[e.to]) {
                     dist[e.to] = dist[u] + w;
                     parent[e.to] = u;
-                    pq.add(e.to);
+                    pq.pushOrDecrease(e.to, dist[e.to]);
                 }
             }
         }
@@ -96,6 +182,176 @@ public final class SafestPathReliability {
 
         return new Result(reliability, path);
     }
+
+    /**
+     * Safest path on a CSR graph, allocating a fresh workspace.
+     */
+    public static Result safestPath(ReliabilityGraph g, int src, int dst) {
+        return safestPath(g, src, dst, new Workspace(g.n));
+    }
+
+    /**
+     * Safest path on a CSR graph using the given workspace
+     * (one workspace per thread; it must have capacity >= g.n).
+     */
+    public static Result safestPath(ReliabilityGraph g, int src, int dst, Workspace ws) {
+        if (ws.capacity() < g.n) throw new IllegalArgumentException("workspace too small for graph");
+        ws.reset();
+
+        double[] dist = ws.dist;
+        int[] offsets = g.offsets, targets = g.targets;
+        double[] weights = g.weights;
+        IndexedDaryHeap pq = ws.heap;
+
+        ws.reach(src, 0.0, -1);
+        pq.pushOrDecrease(src, 0.0);
+
+        while (!pq.isEmpty()) {
+            int u = pq.pollMin();
+            if (u == dst) break;
+
+            double du = dist[u];
+            for (int i = offsets[u], end = offsets[u + 1]; i < end; i++) {
+                int v = targets[i];
+                double nd = du + weights[i];
+                if (nd < dist[v]) {
+                    ws.reach(v, nd, u);
+                    pq.pushOrDecrease(v, nd);
+                }
+            }
+        }
+
+        return toResult(dist, ws.parent, dst);
+    }
+
+    /**
+     * One-to-all: reliability and parent of every node from src in one run.
+     */
+    public static PathTree safestTree(ReliabilityGraph g, int src) {
+        return safestTree(g, new int[]{src});
+    }
+
+    /**
+     * Multi-source: every node is assigned to the source (depot) with the
+     * most reliable route to it.
+     */
+    public static PathTree safestTree(ReliabilityGraph g, int[] sources) {
+        int n = g.n;
+        double[] dist = new double[n];
+        int[] parent = new int[n];
+        int[] origin = new int[n];
+        Arrays.fill(dist, Double.POSITIVE_INFINITY);
+        Arrays.fill(parent, -1);
+        Arrays.fill(origin, -1);
+
+        IndexedDaryHeap pq = new IndexedDaryHeap(n);
+        for (int s : sources) {
+            dist[s] = 0.0;
+            origin[s] = s;
+            pq.pushOrDecrease(s, 0.0);
+        }
+
+        int[] offsets = g.offsets, targets = g.targets;
+        double[] weights = g.weights;
+
+        while (!pq.isEmpty()) {
+            int u = pq.pollMin();
+            double du = dist[u];
+            for (int i = offsets[u], end = offsets[u + 1]; i < end; i++) {
+                int v = targets[i];
+                double nd = du + weights[i];
+                if (nd < dist[v]) {
+                    dist[v] = nd;
+                    parent[v] = u;
+                    origin[v] = origin[u];
+                    pq.pushOrDecrease(v, nd);
+                }
+            }
+        }
+
+        // dist -> reliability in place of a second array
+        for (int v = 0; v < n; v++) dist[v] = Math.exp(-dist[v]);
+        return new PathTree(dist, parent, origin);
+    }
+
+    /**
+     * Reliability of the safest path for every (source, target) pair:
+     * result[i][j] = reliability from sources[i] to targets[j] (0 if unreachable).
+     *
+     * Each source is a Dijkstra run that stops once all targets are settled.
+     * Sources are split into chunks that run in parallel; each chunk reuses
+     * one Workspace, and the graph is only read.
+     */
+    public static double[][] manyToMany(ReliabilityGraph g, int[] sources, int[] targets) {
+        boolean[] isTarget = new boolean[g.n];
+        int distinct = 0;
+        for (int t : targets) {
+            if (!isTarget[t]) distinct++;
+            isTarget[t] = true;
+        }
+        final int targetCount = distinct;
+
+        double[][] result = new double[sources.length][];
+        int chunks = Math.max(1, Math.min(sources.length, ForkJoinPool.getCommonPoolParallelism() * 4));
+
+        IntStream.range(0, chunks).parallel().forEach(c -> {
+            Workspace ws = new Workspace(g.n);
+            for (int i = c; i < sources.length; i += chunks) {
+                settleTargets(g, sources[i], isTarget, targetCount, ws);
+
+                double[] row = new double[targets.length];
+                for (int j = 0; j < targets.length; j++) row[j] = Math.exp(-ws.dist[targets[j]]);
+                result[i] = row;
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Dijkstra from src until targetCount marked nodes have been settled.
+     */
+    private static void settleTargets(ReliabilityGraph g, int src, boolean[] isTarget, int targetCount, Workspace ws) {
+        ws.reset();
+
+        double[] dist = ws.dist;
+        int[] offsets = g.offsets, targets = g.targets;
+        double[] weights = g.weights;
+        IndexedDaryHeap pq = ws.heap;
+
+        ws.reach(src, 0.0, -1);
+        pq.pushOrDecrease(src, 0.0);
+
+        int remaining = targetCount;
+        while (!pq.isEmpty()) {
+            int u = pq.pollMin();
+            if (isTarget[u] && --remaining == 0) break;
+
+            double du = dist[u];
+            for (int i = offsets[u], end = offsets[u + 1]; i < end; i++) {
+                int v = targets[i];
+                double nd = du + weights[i];
+                if (nd < dist[v]) {
+                    ws.reach(v, nd, u);
+                    pq.pushOrDecrease(v, nd);
+                }
+            }
+        }
+    }
+
+    private static Result toResult(double[] dist, int[] parent, int dst) {
+        if (Double.isInfinite(dist[dst])) {
+            return new Result(0.0, List.of());
+        }
+
+        int len = 0;
+        for (int v = dst; v != -1; v = parent[v]) len++;
+
+        Integer[] path = new Integer[len];
+        for (int v = dst, i = len - 1; v != -1; v = parent[v], i--) path[i] = v;
+
+        return new Result(Math.exp(-dist[dst]), Arrays.asList(path));
+    }
+
     private static void addUndirected(List<List<Edge>> g, int a, int b, double p) {
         g.get(a).add(new Edge(b, p));
         g.get(b).add(new Edge(a, p));
@@ -0,0 +1,173 @@
+package coursework.Task6b;
+
+import java.util.*;
+
+/**
+ * @author Nishan Rai
+ * Dinic's algorithm for maximum flow on a FlowGraph.
+ *
+ * Algorithm:
+ * - BFS from s over arcs with residual > 0 builds the level graph.
+ * - A blocking flow is found with repeated DFS along level-increasing arcs.
+ *   Current-arc pointers (it[u]) make sure each arc is skipped at most once
+ *   per phase once it is saturated or leads nowhere.
+ * - Repeat until t is unreachable.
+ * - The DFS is iterative (explicit arc stack), so long paths on big road
+ *   networks cannot overflow the Java stack.
+ *
+ * The residual array is updated in place; afterwards it holds a valid
+ * maximum flow (flow = capacity - residual).
+ *
+ * Time Complexity: O(V^2 * E) worst case, much faster on sparse networks
+ * Space Complexity: O(V + E)
+ */
+public final class DinicMaxFlow {
+
+    private DinicMaxFlow() { }
+
+    /**
+     * Max flow from s to t starting from zero flow.
+     */
+    public static long maxFlow(FlowGraph g, int s, int t) {
+        return maxFlow(g, g.newResidual(), s, t);
+    }
+
+    /**
+     * Max flow with edge flows, minimum cut and path decomposition.
+     */
+    public static MaxFlowResult solve(FlowGraph g, int s, int t) {
+        long[] residual = g.newResidual();
+        maxFlow(g, residual, s, t);
+        return MaxFlowResult.from(g, residual, s, t);
+    }
+
+    /**
+     * Max flow from s to t, continuing from whatever flow the residual
+     * array already holds. Returns the flow added by this call.
+     */
+    public static long maxFlow(FlowGraph g, long[] residual, int s, int t) {
+        return maxFlow(g, residual, s, t, Long.MAX_VALUE);
+    }
+
+    /**
+     * Arc scans a bounded run may still spend. One Budget can be shared by
+     * several runs; FlowNetwork gives up on a warm update once it is spent.
+     */
+    static final class Budget {
+        long arcs;
+
+        Budget(long arcs) {
+            this.arcs = arcs;
+        }
+
+        boolean spent() {
+            return arcs < 0;
+        }
+    }
+
+    /**
+     * Same, but stops once limit units have been sent (used by FlowNetwork
+     * to reroute or cancel a known amount of flow).
+     */
+    static long maxFlow(FlowGraph g, long[] residual, int s, int t, long limit) {
+        return maxFlow(g, residual, s, t, limit, null);
+    }
+
+    /**
+     * Same, but also stops (between augmentations, so the residual always
+     * holds a valid flow) once the budget is spent; null = no budget.
+     */
+    static long maxFlow(FlowGraph g, long[] residual, int s, int t, long limit, Budget budget) {
+        if (s == t) throw new IllegalArgumentException("source and sink must differ");
+
+        int n = g.n;
+        int[] offsets = g.offsets, head = g.head, rev = g.rev;
+        int[] level = new int[n];
+        int[] it = new int[n];
+        int[] queue = new int[n];
+        int[] stack = new int[n];   // arcs of the current path
+
+        long total = 0;
+        if (limit <= 0) return 0;
+        while (bfs(g, residual, s, t, level, queue, budget)) {
+            if (budget != null && budget.spent()) return total;
+            System.arraycopy(offsets, 0, it, 0, n);
+
+            // ---- blocking flow
+            int depth = 0;
+            int u = s;
+            while (true) {
+                if (u == t) {
+                    long aug = limit - total;
+                    for (int i = 0; i < depth; i++) aug = Math.min(aug, residual[stack[i]]);
+
+                    int cut = -1;
+                    for (int i = 0; i < depth; i++) {
+                        int a = stack[i];
+                        residual[a] -= aug;
+                        residual[rev[a]] += aug;
+                        if (cut < 0 && residual[a] == 0) cut = i;
+                    }
+                    total += aug;
+                    if (total == limit) return total;
+
+                    // resume from the tail of the first saturated arc
+                    depth = cut;
+                    u = depth == 0 ? s : head[stack[depth - 1]];
+                    continue;
+                }
+
+                int end = offsets[u + 1];
+                int a = it[u];
+                while (a < end && (residual[a] == 0 || level[head[a]] != level[u] + 1)) a++;
+                if (budget != null && (budget.arcs -= a - it[u] + 1) < 0) return total;
+                it[u] = a;
+
+                if (a < end) {
+                    stack[depth++] = a;
+                    u = head[a];
+                } else {
+                    // dead end: remove u from the level graph and back up
+                    level[u] = -1;
+                    if (depth == 0) break;
+                    depth--;
+                    u = head[rev[stack[depth]]];
+                    it[u]++;
+                }
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Level graph from s; returns true if t is reachable.
+     * Scanned arcs are charged to the budget (if any).
+     */
+    static boolean bfs(FlowGraph g, long[] residual, int s, int t, int[] level, int[] queue, Budget budget) {
+        Arrays.fill(level, -1);
+        level[s] = 0;
+        int qh = 0, qt = 0;
+        queue[qt++] = s;
+        long scanned = 0;
+        boolean found = false;
+
+        search:
+        while (qh < qt) {
+            int u = queue[qh++];
+            scanned += g.offsets[u + 1] - g.offsets[u];
+            for (int a = g.offsets[u]; a < g.offsets[u + 1]; a++) {
+                int v = g.head[a];
+                if (residual[a] > 0 && level[v] < 0) {
+                    level[v] = level[u] + 1;
+                    if (v == t) {
+                        found = true;
+                        break search;
+                    }
+                    queue[qt++] = v;
+                }
+            }
+        }
+        if (budget != null) budget.arcs -= g.n + scanned;   // level reset + scan
+        return found;
+    }
+}
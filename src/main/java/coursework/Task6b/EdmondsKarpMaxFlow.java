@@ -17,6 +17,9 @@ import java.util.*;
  *
  * Time Complexity: O(V * E^2)
  * Space Complexity: O(V^2) for matrices
+ *
+ * For large sparse networks use FlowGraph with DinicMaxFlow or
+ * PushRelabelMaxFlow (O(V + E) memory, long capacities).
  */
 public final class EdmondsKarpMaxFlow {
 
@@ -31,7 +34,31 @@ public final class EdmondsKarpMaxFlow {
      * @param t        sink
      */
     public static int maxFlow(int n, int[][] capacity, int s, int t) {
+        return run(n, capacity, s, t, new int[n][n]);
+    }
+
+    /**
+     * Same as maxFlow, but keeps the final flow matrix and returns edge
+     * flows, the minimum cut and the flow paths (edges = non-zero entries
+     * of capacity, in row-major order, as in FlowGraph.fromMatrix).
+     */
+    public static MaxFlowResult solve(int n, int[][] capacity, int s, int t) {
         int[][] flow = new int[n][n];
+        run(n, capacity, s, t, flow);
+
+        FlowGraph g = FlowGraph.fromMatrix(capacity);
+        long[] residual = g.newResidual();
+        for (int i = 0; i < g.edgeCount(); i++) {
+            // flow[u][v] is net flow; only the positive direction is real
+            long f = Math.max(0, flow[g.from(i)][g.to(i)]);
+            int a = g.edgeArc[i];
+            residual[a] -= f;
+            residual[g.rev[a]] += f;
+        }
+        return MaxFlowResult.from(g, residual, s, t);
+    }
+
+    private static int run(int n, int[][] capacity, int s, int t, int[][] flow) {
         int total = 0;
 
         while (true) {
@@ -0,0 +1,207 @@
+package coursework.Task6b;
+
+import coursework.graph.EdgeListFile;
+
+import java.util.*;
+
+/**
+ * @author Nishan Rai
+ * Sparse flow network in CSR form with paired reverse arcs.
+ *
+ * Why (compared to the int[n][n] matrix of EdmondsKarpMaxFlow):
+ * - Memory is O(V + E) instead of O(V^2): a 100k-node road network needs a
+ *   few MB instead of 40 GB.
+ * - Scanning a node looks at its own arcs only, not at all n columns.
+ * - Capacities are long, so large aggregated capacities cannot overflow.
+ *
+ * Layout:
+ * - Every input edge i (from -> to, cap) becomes two arcs: the forward arc
+ *   edgeArc[i] with capacity cap, and its reverse arc rev[edgeArc[i]] with
+ *   capacity 0. The arcs of node u are offsets[u] .. offsets[u+1]-1.
+ * - The graph itself is immutable. Solvers work on a separate residual
+ *   array (newResidual()), so one graph can be solved many times, or by
+ *   several threads at once, each with its own residual copy.
+ * - flow on arc a = capacity[a] - residual[a].
+ *
+ * Time Complexity: build O(V + E)
+ * Space Complexity: O(V + E)
+ */
+public final class FlowGraph {
+
+    public final int n;
+    final int[] offsets;     // node -> first arc
+    final int[] head;        // arc -> node it points to
+    final int[] rev;         // arc -> paired arc
+    final long[] capacity;   // arc -> original capacity (0 for reverse arcs)
+    final int[] edgeArc;     // input edge -> its forward arc
+
+    private FlowGraph(int n, int[] offsets, int[] head, int[] rev, long[] capacity, int[] edgeArc) {
+        this.n = n;
+        this.offsets = offsets;
+        this.head = head;
+        this.rev = rev;
+        this.capacity = capacity;
+        this.edgeArc = edgeArc;
+    }
+
+    /**
+     * Build from parallel edge arrays: edge i goes from[i] -> to[i] with cap[i].
+     */
+    public static FlowGraph of(int n, int[] from, int[] to, long[] cap) {
+        int m = from.length;
+        if (to.length != m || cap.length != m) throw new IllegalArgumentException("edge arrays must have the same length");
+        checkEdgeCount(m);
+
+        int[] offsets = new int[n + 1];
+        for (int i = 0; i < m; i++) {
+            if (from[i] < 0 || from[i] >= n || to[i] < 0 || to[i] >= n) {
+                throw new IllegalArgumentException("edge " + i + " has a node out of range");
+            }
+            if (cap[i] < 0) throw new IllegalArgumentException("capacity must be non-negative: edge " + i);
+            offsets[from[i] + 1]++;
+            offsets[to[i] + 1]++;
+        }
+        for (int u = 0; u < n; u++) offsets[u + 1] += offsets[u];
+
+        int arcs = offsets[n];
+        int[] head = new int[arcs];
+        int[] rev = new int[arcs];
+        long[] capacity = new long[arcs];
+        int[] edgeArc = new int[m];
+
+        int[] fill = Arrays.copyOf(offsets, n);
+        for (int i = 0; i < m; i++) {
+            int a = fill[from[i]]++;
+            int b = fill[to[i]]++;
+            head[a] = to[i];
+            head[b] = from[i];
+            rev[a] = b;
+            rev[b] = a;
+            capacity[a] = cap[i];
+            edgeArc[i] = a;
+        }
+        return new FlowGraph(n, offsets, head, rev, capacity, edgeArc);
+    }
+
+    /**
+     * Build from a memory-mapped EdgeListFile (values = capacities, whole
+     * numbers >= 0). Edges are read from the mapping in two passes, so only
+     * the arc arrays end up on the heap. Edge i is the i-th edge of the file.
+     */
+    public static FlowGraph fromEdgeList(EdgeListFile file) {
+        int n = file.n;
+        checkEdgeCount(file.m);
+        int[] offsets = new int[n + 1];
+        file.forEachEdge((u, v, c) -> {
+            if (!(c >= 0) || c != (long) c) throw new IllegalArgumentException("capacity must be a non-negative whole number: " + c);
+            offsets[u + 1]++;
+            offsets[v + 1]++;
+        });
+        for (int u = 0; u < n; u++) offsets[u + 1] += offsets[u];
+
+        int arcs = offsets[n];
+        int[] head = new int[arcs];
+        int[] rev = new int[arcs];
+        long[] capacity = new long[arcs];
+        int[] edgeArc = new int[file.m];
+
+        int[] fill = Arrays.copyOf(offsets, n);
+        int[] edge = {0};
+        file.forEachEdge((u, v, c) -> {
+            int a = fill[u]++;
+            int b = fill[v]++;
+            head[a] = v;
+            head[b] = u;
+            rev[a] = b;
+            rev[b] = a;
+            capacity[a] = (long) c;
+            edgeArc[edge[0]++] = a;
+        });
+        return new FlowGraph(n, offsets, head, rev, capacity, edgeArc);
+    }
+
+    /**
+     * Every edge becomes two arcs, so m edges need 2m int-indexed arc slots.
+     * Checked up front so the offset prefix sums cannot overflow.
+     */
+    private static void checkEdgeCount(long m) {
+        if (m > Integer.MAX_VALUE / 2) throw new IllegalArgumentException("too many edges for int arc indices: " + m);
+    }
+
+    /**
+     * Build from the capacity matrix used by EdmondsKarpMaxFlow
+     * (only non-zero entries become edges).
+     */
+    public static FlowGraph fromMatrix(int[][] capacity) {
+        int n = capacity.length;
+        int m = 0;
+        for (int[] row : capacity) for (int c : row) if (c != 0) m++;
+
+        int[] from = new int[m], to = new int[m];
+        long[] cap = new long[m];
+        int i = 0;
+        for (int u = 0; u < n; u++) {
+            for (int v = 0; v < n; v++) {
+                if (capacity[u][v] == 0) continue;
+                from[i] = u;
+                to[i] = v;
+                cap[i] = capacity[u][v];
+                i++;
+            }
+        }
+        return of(n, from, to, cap);
+    }
+
+    /**
+     * Same topology with a private copy of the arc capacities, for
+     * FlowNetwork, which changes capacities in place.
+     */
+    FlowGraph copyWithOwnCapacities() {
+        return new FlowGraph(n, offsets, head, rev, capacity.clone(), edgeArc);
+    }
+
+    /**
+     * Same arcs, but every edge can carry its capacity in both directions
+     * (reverse arc capacity = forward capacity), for undirected cut problems
+     * such as GomoryHuTree. Flow on an edge may then be negative.
+     */
+    FlowGraph asUndirected() {
+        long[] both = capacity.clone();
+        for (int a : edgeArc) both[rev[a]] += capacity[a];
+        return new FlowGraph(n, offsets, head, rev, both, edgeArc);
+    }
+
+    /**
+     * Number of input edges.
+     */
+    public int edgeCount() {
+        return edgeArc.length;
+    }
+
+    public int from(int edge) {
+        return head[rev[edgeArc[edge]]];
+    }
+
+    public int to(int edge) {
+        return head[edgeArc[edge]];
+    }
+
+    public long capacity(int edge) {
+        return capacity[edgeArc[edge]];
+    }
+
+    /**
+     * Fresh residual capacities (zero flow).
+     */
+    public long[] newResidual() {
+        return capacity.clone();
+    }
+
+    /**
+     * Flow on input edge i given a residual array.
+     */
+    public long flow(long[] residual, int edge) {
+        int a = edgeArc[edge];
+        return capacity[a] - residual[a];
+    }
+}
@@ -0,0 +1,226 @@
+package coursework.Task6b;
+
+/**
+ * @author Nishan Rai
+ * Max-flow network that keeps its current flow between capacity changes
+ * (warm starts instead of solving from zero every time).
+ *
+ * Capacity change on edge u -> v carrying flow f:
+ * - Increase, or decrease that stays >= f: the flow is still feasible; the
+ *   residual capacity is adjusted and, for an increase, new augmenting
+ *   paths are searched from the current flow.
+ * - Decrease below f: the edge keeps c, so u is left with d = f - c too much
+ *   inflow and v with d too little.
+ *   1) Reroute: send up to d from u to v around the edge (value unchanged).
+ *   2) Whatever could not be rerouted is sent back from u towards s (or t)
+ *      and supplied to v from t (or s), so the flow is feasible again.
+ *   3) Re-optimise: augment s -> t from the repaired flow.
+ * - The repair steps and step 3 are Dinic augmentations on the shared
+ *   residual array, so only the flow that actually has to move is pushed
+ *   again instead of solving from zero.
+ * - Changes on the minimum cut (s side -> t side of the current flow) go
+ *   straight to a cold push-relabel solve (the constructor's solver):
+ *   they move the flow value, and augmenting from the old flow takes many
+ *   Dinic phases, one full BFS each, which costs more than a cold Dinic
+ *   solve.
+ * - Every other change is warm, with a work budget of WARM_SCANS x (number
+ *   of arcs) arc scans over all its Dinic runs. If the budget runs out, the
+ *   residual is reset to the capacities and solved cold with push-relabel,
+ *   so a warm update never costs much more than a cold solve.
+ *
+ * Trade-off, measured on the IncrementalMaxFlowBenchmark graph (200k nodes,
+ * 2M edges): a change off the cut takes about 1 ms, while a change on the
+ * cut takes 100 - 160 ms, about the same as a cold push-relabel solve
+ * (105 - 150 ms; cold Dinic 580 - 820 ms). Warm starts pay off when most
+ * changes miss the cut.
+ *
+ * Several changes can be applied with setCapacities and re-optimised once
+ * (one budget for the whole batch; a cut edge in it makes the batch cold).
+ *
+ * Time Complexity (per change): O(V + E) warm work, or a cold push-relabel
+ * solve for a cut edge or when the budget runs out
+ * Space Complexity: O(V + E)
+ */
+public final class FlowNetwork {
+
+    // arcs a warm update may scan, as a multiple of the arc count
+    private static final int WARM_SCANS = 1;
+
+    private final FlowGraph g;        // private copy, capacities change in place
+    private final long[] residual;
+    private final int s, t;
+    private long value;
+    private int coldSolves;
+    private boolean[] sourceSide;     // s side of the current minimum cut, null = not computed yet
+
+    /**
+     * Solve the initial max flow (push-relabel) and keep it.
+     */
+    public FlowNetwork(FlowGraph graph, int s, int t) {
+        if (s == t) throw new IllegalArgumentException("source and sink must differ");
+        this.g = graph.copyWithOwnCapacities();
+        this.residual = g.newResidual();
+        this.s = s;
+        this.t = t;
+        PushRelabelMaxFlow.maxFlow(g, residual, s, t);
+        this.value = netOutflow(s);
+    }
+
+    /**
+     * Current maximum flow value.
+     */
+    public long value() {
+        return value;
+    }
+
+    public long capacity(int edge) {
+        return g.capacity(edge);
+    }
+
+    public long flow(int edge) {
+        return g.flow(residual, edge);
+    }
+
+    /**
+     * Updates that ran out of warm budget and were solved from zero.
+     */
+    public int coldSolves() {
+        return coldSolves;
+    }
+
+    /**
+     * Change one edge capacity and return the new max flow value.
+     */
+    public long setCapacity(int edge, long capacity) {
+        return setCapacities(new int[]{edge}, new long[]{capacity});
+    }
+
+    /**
+     * Change several capacities, then re-optimise once.
+     */
+    public long setCapacities(int[] edges, long[] capacities) {
+        if (edges.length != capacities.length) throw new IllegalArgumentException("edges and capacities must have the same length");
+        boolean cut = false;
+        for (int i = 0; i < edges.length; i++) {
+            if (edges[i] < 0 || edges[i] >= g.edgeCount()) throw new IllegalArgumentException("edge out of range: " + edges[i]);
+            if (capacities[i] < 0) throw new IllegalArgumentException("capacity must be non-negative");
+            cut |= onCut(edges[i]);
+        }
+
+        // a change on the cut moves the flow value: go straight to the cold solve
+        DinicMaxFlow.Budget budget = new DinicMaxFlow.Budget(cut ? -1 : (long) WARM_SCANS * g.offsets[g.n]);
+        for (int i = 0; i < edges.length; i++) apply(edges[i], capacities[i], budget);
+        return reoptimize(budget);
+    }
+
+    /**
+     * Edge flows, minimum cut and flow paths of the current flow.
+     */
+    public MaxFlowResult result() {
+        return MaxFlowResult.from(g, residual, s, t);
+    }
+
+    /**
+     * Set the capacity and restore a feasible flow (not necessarily maximum).
+     * Once the budget is spent only the capacity is set: the flow is
+     * rebuilt from zero by reoptimize.
+     */
+    private void apply(int edge, long c, DinicMaxFlow.Budget budget) {
+        int a = g.edgeArc[edge];
+        long old = g.capacity[a];
+        long f = old - residual[a];
+
+        g.capacity[a] = c;
+        if (budget.spent()) return;
+        if (c >= f) {
+            residual[a] += c - old;
+            return;
+        }
+
+        // ---- cut the flow on this edge down to c
+        long d = f - c;
+        residual[a] = 0;
+        residual[g.rev[a]] = c;
+
+        int u = g.from(edge), v = g.to(edge);
+        if (u == v) return;   // self-loop: no imbalance
+
+        // terminals may be unbalanced, so they need no repair
+        long surplus = terminal(u) ? 0 : d;   // at u
+        long deficit = terminal(v) ? 0 : d;   // at v
+
+        // 1) reroute around the edge
+        if (surplus > 0 && deficit > 0) {
+            long x = DinicMaxFlow.maxFlow(g, residual, u, v, d, budget);
+            surplus -= x;
+            deficit -= x;
+        }
+
+        // 2) return the rest to a terminal / take it from a terminal
+        if (surplus > 0) surplus -= DinicMaxFlow.maxFlow(g, residual, u, s, surplus, budget);
+        if (surplus > 0) surplus -= DinicMaxFlow.maxFlow(g, residual, u, t, surplus, budget);
+        if (deficit > 0) deficit -= DinicMaxFlow.maxFlow(g, residual, t, v, deficit, budget);
+        if (deficit > 0) deficit -= DinicMaxFlow.maxFlow(g, residual, s, v, deficit, budget);
+
+        if (budget.spent()) return;   // unbalanced, but reoptimize starts from zero
+        if (surplus > 0 || deficit > 0) {
+            throw new IllegalStateException("could not restore a feasible flow after changing edge " + edge);
+        }
+    }
+
+    /**
+     * 3) Augment s -> t from the current feasible flow (Dinic: only the
+     * augmenting paths left in the residual graph are searched, usually
+     * none or a few short ones after a single change). If the budget runs
+     * out, solve from zero flow with push-relabel instead.
+     */
+    private long reoptimize(DinicMaxFlow.Budget budget) {
+        if (!budget.spent()) DinicMaxFlow.maxFlow(g, residual, s, t, Long.MAX_VALUE, budget);
+        if (budget.spent()) {
+            System.arraycopy(g.capacity, 0, residual, 0, residual.length);
+            PushRelabelMaxFlow.maxFlow(g, residual, s, t);
+            coldSolves++;
+        }
+        sourceSide = null;
+        value = netOutflow(s);
+        return value;
+    }
+
+    /**
+     * True if the edge goes from the s side to the t side of the current
+     * minimum cut (the side is found once per flow, by a BFS from s).
+     */
+    private boolean onCut(int edge) {
+        if (sourceSide == null) {
+            sourceSide = new boolean[g.n];
+            int[] queue = new int[g.n];
+            int qh = 0, qt = 0;
+            queue[qt++] = s;
+            sourceSide[s] = true;
+            while (qh < qt) {
+                int u = queue[qh++];
+                for (int a = g.offsets[u]; a < g.offsets[u + 1]; a++) {
+                    int v = g.head[a];
+                    if (residual[a] > 0 && !sourceSide[v]) {
+                        sourceSide[v] = true;
+                        queue[qt++] = v;
+                    }
+                }
+            }
+        }
+        return sourceSide[g.from(edge)] && !sourceSide[g.to(edge)];
+    }
+
+    private boolean terminal(int x) {
+        return x == s || x == t;
+    }
+
+    /**
+     * Flow leaving x minus flow entering x.
+     */
+    private long netOutflow(int x) {
+        long sum = 0;
+        for (int a = g.offsets[x]; a < g.offsets[x + 1]; a++) sum += g.capacity[a] - residual[a];
+        return sum;
+    }
+}
@@ -0,0 +1,316 @@
+package coursework.Task6b;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * @author Nishan Rai
+ * Gomory-Hu cut tree of an undirected capacity network (roads usable in both
+ * directions).
+ *
+ * Why:
+ * - Max flow between every depot and every relief centre used to be one
+ *   solve per pair (n^2 solves for all pairs).
+ * - In an undirected network all pairwise min cuts fit in one tree on the
+ *   same nodes: maxFlow(u, v) = smallest edge weight on the tree path
+ *   u ... v, and removing that edge splits the nodes into a minimum u-v cut.
+ * - Building the tree takes n - 1 max-flow solves; after that every query is
+ *   a tree walk.
+ *
+ * Algorithm (Gusfield, no graph contraction needed):
+ * - parent[v] = 0 for all v. For s = 1 .. n-1: min cut between s and
+ *   t = parent[s] on the original graph, with X = the side of s.
+ *   - weight[s] = cut value
+ *   - every other node in X whose parent is t now hangs below s
+ *   - if parent[t] is in X, s and t swap places in the tree
+ * - Parallel: cut s only depends on parent[s]. A window of upcoming nodes is
+ *   solved in parallel, each worker with its own residual copy of the graph.
+ *   Results are then applied in order. A result whose parent changed in the
+ *   meantime is solved again with the next window. On road networks most
+ *   cuts only split off a few nodes, so almost every result is kept.
+ *
+ * Time Complexity:
+ * - build: (n - 1) max-flow solves, spread over the cores
+ * - minCut(u, v): O(n) worst case (tree path length)
+ * - maxFlows(sources, sinks): O(|sources| * n)
+ * Space Complexity: O(V + E) per worker thread, O(n) for the tree
+ */
+public final class GomoryHuTree {
+
+    public final int n;
+    final int[] parent;    // tree parent (root 0 has -1)
+    final long[] weight;   // weight of edge v - parent[v]
+    final int[] depth;
+
+    private GomoryHuTree(int[] parent, long[] weight) {
+        this.n = parent.length;
+        this.parent = parent;
+        this.weight = weight;
+        this.depth = new int[n];
+
+        // ---- depths (parents are not ordered by id after swaps)
+        Arrays.fill(depth, -1);
+        if (n > 0) depth[0] = 0;
+        int[] chain = new int[n];
+        for (int v = 0; v < n; v++) {
+            int len = 0;
+            int x = v;
+            while (depth[x] < 0) {
+                chain[len++] = x;
+                x = parent[x];
+            }
+            while (len > 0) {
+                int y = chain[--len];
+                depth[y] = depth[parent[y]] + 1;
+            }
+        }
+    }
+
+    /**
+     * One finished s - t cut, waiting to be applied.
+     */
+    private static final class Cut {
+        final int s, t;
+        final long value;
+        final boolean[] side;   // side[v]: v is on s's side
+
+        Cut(int s, int t, long value, boolean[] side) {
+            this.s = s;
+            this.t = t;
+            this.value = value;
+            this.side = side;
+        }
+    }
+
+    /**
+     * Build the tree. Every edge of g is treated as an undirected road whose
+     * capacity can be used in either direction (list each road once).
+     */
+    public static GomoryHuTree build(FlowGraph g) {
+        int n = g.n;
+        FlowGraph ug = g.asUndirected();
+
+        int[] parent = new int[n];
+        long[] weight = new long[n];
+        if (n == 0) return new GomoryHuTree(parent, weight);
+        parent[0] = -1;
+
+        int workers = Math.max(1, ForkJoinPool.getCommonPoolParallelism());
+        int window = workers * 2;
+        Cut[] pending = new Cut[window];   // pending[k] belongs to node next + k
+        long[][] residuals = new long[workers][];
+        int[] todo = new int[window];
+
+        int next = 1;
+        while (next < n) {
+            final int base = next;
+            int end = Math.min(n, base + window);
+
+            // ---- solve every cut in the window that is missing or stale
+            int count = 0;
+            for (int s = base; s < end; s++) {
+                Cut c = pending[s - base];
+                if (c == null || c.t != parent[s]) todo[count++] = s;
+            }
+            final int jobs = count;
+            int chunks = Math.min(workers, jobs);
+            IntStream.range(0, chunks).parallel().forEach(w -> {
+                if (residuals[w] == null) residuals[w] = new long[ug.capacity.length];
+                for (int k = w; k < jobs; k += chunks) {
+                    int s = todo[k];
+                    pending[s - base] = solve(ug, residuals[w], s, parent[s]);
+                }
+            });
+
+            // ---- apply in order until a result went stale
+            int s = base;
+            while (s < end && pending[s - base].t == parent[s]) {
+                apply(pending[s - base], parent, weight);
+                s++;
+            }
+
+            // ---- shift the unused results to the front of the window
+            int used = s - base;
+            System.arraycopy(pending, used, pending, 0, window - used);
+            Arrays.fill(pending, window - used, window, null);
+            next = s;
+        }
+        return new GomoryHuTree(parent, weight);
+    }
+
+    /**
+     * Min cut between s and t on a fresh residual copy.
+     */
+    private static Cut solve(FlowGraph g, long[] residual, int s, int t) {
+        System.arraycopy(g.capacity, 0, residual, 0, residual.length);
+        long value = PushRelabelMaxFlow.maxFlow(g, residual, s, t);
+
+        // ---- s side: residual reachability from s
+        boolean[] side = new boolean[g.n];
+        int[] queue = new int[g.n];
+        int qh = 0, qt = 0;
+        side[s] = true;
+        queue[qt++] = s;
+        while (qh < qt) {
+            int u = queue[qh++];
+            for (int a = g.offsets[u]; a < g.offsets[u + 1]; a++) {
+                int v = g.head[a];
+                if (residual[a] > 0 && !side[v]) {
+                    side[v] = true;
+                    queue[qt++] = v;
+                }
+            }
+        }
+        return new Cut(s, t, value, side);
+    }
+
+    /**
+     * Gusfield's tree update for one cut.
+     */
+    private static void apply(Cut c, int[] parent, long[] weight) {
+        int s = c.s, t = c.t;
+        weight[s] = c.value;
+        for (int v = 0; v < parent.length; v++) {
+            if (v != s && c.side[v] && parent[v] == t) parent[v] = s;
+        }
+        if (parent[t] >= 0 && c.side[parent[t]]) {
+            parent[s] = parent[t];
+            parent[t] = s;
+            weight[s] = weight[t];
+            weight[t] = c.value;
+        }
+    }
+
+    // -------------------------
+    // Queries
+    // -------------------------
+
+    /**
+     * Max flow (= min cut value) between u and v.
+     */
+    public long minCut(int u, int v) {
+        return weight[bottleneck(u, v)];
+    }
+
+    /**
+     * One minimum u-v cut: true for the nodes on u's side.
+     */
+    public boolean[] minCutSide(int u, int v) {
+        int x = bottleneck(u, v);
+
+        // subtree of x = nodes whose path to the root passes x
+        boolean[] below = new boolean[n];
+        byte[] state = new byte[n];   // 0 unknown, 1 below x, 2 not below
+        state[x] = 1;
+        state[0] = 2;   // x is never the root
+        int[] chain = new int[n];
+        for (int w = 0; w < n; w++) {
+            int len = 0;
+            int y = w;
+            while (state[y] == 0) {
+                chain[len++] = y;
+                y = parent[y];
+            }
+            byte st = state[y];
+            while (len > 0) state[chain[--len]] = st;
+            below[w] = st == 1;
+        }
+
+        if (!below[u]) {
+            for (int w = 0; w < n; w++) below[w] = !below[w];
+        }
+        return below;
+    }
+
+    /**
+     * Max flow for every (source, sink) pair: result[i][j] for sources[i]
+     * and sinks[j] (Long.MAX_VALUE where a source is also the sink).
+     * One O(n) tree traversal per source.
+     */
+    public long[][] maxFlows(int[] sources, int[] sinks) {
+        // ---- children lists (CSR)
+        int[] start = new int[n + 1];
+        for (int v = 1; v < n; v++) start[parent[v] + 1]++;
+        for (int v = 0; v < n; v++) start[v + 1] += start[v];
+        int[] children = new int[Math.max(0, n - 1)];
+        int[] fill = Arrays.copyOf(start, n);
+        for (int v = 0; v < n; v++) if (parent[v] >= 0) children[fill[parent[v]]++] = v;
+
+        long[][] result = new long[sources.length][];
+        IntStream.range(0, sources.length).parallel().forEach(i -> {
+            long[] best = bottlenecksFrom(sources[i], start, children);
+            long[] row = new long[sinks.length];
+            for (int j = 0; j < sinks.length; j++) row[j] = best[sinks[j]];
+            result[i] = row;
+        });
+        return result;
+    }
+
+    /**
+     * Smallest tree edge weight on the path from src to every node.
+     */
+    private long[] bottlenecksFrom(int src, int[] start, int[] children) {
+        long[] best = new long[n];
+        boolean[] seen = new boolean[n];
+        int[] stack = new int[n];
+        int top = 0;
+        best[src] = Long.MAX_VALUE;
+        seen[src] = true;
+        stack[top++] = src;
+
+        while (top > 0) {
+            int u = stack[--top];
+            // up
+            int p = parent[u];
+            if (p >= 0 && !seen[p]) {
+                best[p] = Math.min(best[u], weight[u]);
+                seen[p] = true;
+                stack[top++] = p;
+            }
+            // down
+            for (int k = start[u]; k < start[u + 1]; k++) {
+                int c = children[k];
+                if (seen[c]) continue;
+                best[c] = Math.min(best[u], weight[c]);
+                seen[c] = true;
+                stack[top++] = c;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Node x whose edge x - parent[x] is the lightest on the path u ... v.
+     */
+    private int bottleneck(int u, int v) {
+        if (u == v) throw new IllegalArgumentException("nodes must differ");
+        int best = -1;
+        while (u != v) {
+            int x;
+            if (depth[u] >= depth[v]) {
+                x = u;
+                u = parent[u];
+            } else {
+                x = v;
+                v = parent[v];
+            }
+            if (best < 0 || weight[x] < weight[best]) best = x;
+        }
+        return best;
+    }
+
+    /**
+     * Tree parent of v (-1 for the root 0).
+     */
+    public int parent(int v) {
+        return parent[v];
+    }
+
+    /**
+     * Weight of the tree edge v - parent(v).
+     */
+    public long weight(int v) {
+        return weight[v];
+    }
+}
@@ -0,0 +1,167 @@
+package coursework.Task6b;
+
+import java.util.*;
+
+/**
+ * @author Nishan Rai
+ * Everything a solved max-flow gives us, read from the final residual graph
+ * (no second solve).
+ *
+ * Contents:
+ * - value: total s -> t flow.
+ * - edgeFlow[i]: flow on input edge i.
+ * - sourceSide[v]: v is reachable from s in the residual graph. This is the
+ *   source side S of a minimum s-t cut.
+ * - cutEdges: input edges from S to the other side. They are all saturated,
+ *   and their capacities add up to value: these are the bottleneck roads.
+ * - paths: the flow split into s -> t paths, each with the amount it carries
+ *   (flow decomposition; flow cycles, which move nothing from s to t, are
+ *   cancelled and left out).
+ *
+ * Time Complexity:
+ * - cut: O(V + E)
+ * - decomposition: O(E * (V + E)) worst case, usually O(P * L) for P paths
+ *   of length L
+ */
+public final class MaxFlowResult {
+
+    public static final class FlowPath {
+        public final long amount;
+        public final List<Integer> nodes;
+        public final List<Integer> edges;   // input edge ids, one per hop
+
+        public FlowPath(long amount, List<Integer> nodes, List<Integer> edges) {
+            this.amount = amount;
+            this.nodes = nodes;
+            this.edges = edges;
+        }
+    }
+
+    public final long value;
+    public final long[] edgeFlow;
+    public final boolean[] sourceSide;
+    public final List<Integer> cutEdges;
+    public final List<FlowPath> paths;
+
+    public MaxFlowResult(long value, long[] edgeFlow, boolean[] sourceSide, List<Integer> cutEdges, List<FlowPath> paths) {
+        this.value = value;
+        this.edgeFlow = edgeFlow;
+        this.sourceSide = sourceSide;
+        this.cutEdges = cutEdges;
+        this.paths = paths;
+    }
+
+    /**
+     * Build the result from a residual array holding a maximum flow.
+     */
+    public static MaxFlowResult from(FlowGraph g, long[] residual, int s, int t) {
+        int n = g.n, m = g.edgeCount();
+
+        long[] edgeFlow = new long[m];
+        for (int i = 0; i < m; i++) edgeFlow[i] = g.flow(residual, i);
+
+        // ---- min cut: residual reachability from s
+        boolean[] sourceSide = new boolean[n];
+        int[] queue = new int[n];
+        int qh = 0, qt = 0;
+        sourceSide[s] = true;
+        queue[qt++] = s;
+        while (qh < qt) {
+            int u = queue[qh++];
+            for (int a = g.offsets[u]; a < g.offsets[u + 1]; a++) {
+                int v = g.head[a];
+                if (residual[a] > 0 && !sourceSide[v]) {
+                    sourceSide[v] = true;
+                    queue[qt++] = v;
+                }
+            }
+        }
+
+        List<Integer> cutEdges = new ArrayList<>();
+        long value = 0;
+        for (int i = 0; i < m; i++) {
+            int u = g.from(i), v = g.to(i);
+            if (sourceSide[u] && !sourceSide[v] && g.capacity(i) > 0) cutEdges.add(i);
+            if (u == s) value += edgeFlow[i];
+            if (v == s) value -= edgeFlow[i];
+        }
+
+        return new MaxFlowResult(value, edgeFlow, sourceSide, cutEdges, decompose(g, edgeFlow, s, t));
+    }
+
+    /**
+     * Split the edge flows into s -> t paths, cancelling cycles on the way.
+     */
+    private static List<FlowPath> decompose(FlowGraph g, long[] edgeFlow, int s, int t) {
+        int n = g.n, m = g.edgeCount();
+        long[] left = edgeFlow.clone();
+
+        // forward edges per node (CSR by tail)
+        int[] start = new int[n + 1];
+        for (int i = 0; i < m; i++) start[g.from(i) + 1]++;
+        for (int u = 0; u < n; u++) start[u + 1] += start[u];
+        int[] outEdges = new int[m];
+        int[] fill = Arrays.copyOf(start, n);
+        for (int i = 0; i < m; i++) outEdges[fill[g.from(i)]++] = i;
+
+        int[] cursor = Arrays.copyOf(start, n);
+        int[] posInWalk = new int[n];
+        Arrays.fill(posInWalk, -1);
+        int[] walkNodes = new int[n + 1];
+        int[] walkEdges = new int[n];
+
+        List<FlowPath> paths = new ArrayList<>();
+        while (true) {
+            int len = 0;
+            int u = s;
+            walkNodes[0] = s;
+            posInWalk[s] = 0;
+
+            while (u != t) {
+                // next edge out of u that still carries flow
+                int c = cursor[u];
+                while (c < start[u + 1] && left[outEdges[c]] <= 0) c++;
+                cursor[u] = c;
+                if (c == start[u + 1]) break;   // only happens at s once everything is used
+
+                int e = outEdges[c];
+                int v = g.to(e);
+                walkEdges[len] = e;
+
+                if (posInWalk[v] >= 0) {
+                    // cycle v -> ... -> u -> v: cancel its bottleneck, rewind to v
+                    int from = posInWalk[v];
+                    long b = left[e];
+                    for (int i = from; i < len; i++) b = Math.min(b, left[walkEdges[i]]);
+                    for (int i = from; i <= len; i++) left[walkEdges[i]] -= b;
+                    for (int i = from + 1; i <= len; i++) posInWalk[walkNodes[i]] = -1;
+                    len = from;
+                    u = v;
+                    continue;
+                }
+
+                len++;
+                walkNodes[len] = v;
+                posInWalk[v] = len;
+                u = v;
+            }
+
+            for (int i = 0; i <= len; i++) posInWalk[walkNodes[i]] = -1;
+            if (u != t) break;
+
+            long amount = Long.MAX_VALUE;
+            for (int i = 0; i < len; i++) amount = Math.min(amount, left[walkEdges[i]]);
+
+            List<Integer> nodes = new ArrayList<>(len + 1);
+            List<Integer> edges = new ArrayList<>(len);
+            for (int i = 0; i < len; i++) {
+                left[walkEdges[i]] -= amount;
+                nodes.add(walkNodes[i]);
+                edges.add(walkEdges[i]);
+            }
+            nodes.add(t);
+            paths.add(new FlowPath(amount, nodes, edges));
+        }
+        return paths;
+    }
+}
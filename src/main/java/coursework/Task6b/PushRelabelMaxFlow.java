@@ -0,0 +1,328 @@
+package coursework.Task6b;
+
+import java.util.*;
+
+/**
+ * @author Nishan Rai
+ * Highest-label push-relabel maximum flow on a FlowGraph.
+ *
+ * Algorithm:
+ * - Saturate every arc out of s, then repeatedly discharge the active node
+ *   (excess > 0) with the highest label: push along admissible arcs
+ *   (residual > 0, height[u] = height[v] + 1), relabel when none are left.
+ * - Gap heuristic: if no node is left at some height h < n, every node above
+ *   h can no longer reach t and is lifted to n at once.
+ * - Global relabel: heights are reset to exact BFS distances to t at the
+ *   start and again after O(V + E) relabel work.
+ * - Phase 1 stops when no node below n is active: the flow into t is then
+ *   maximum. Phase 2 returns the leftover excess to s (FIFO push-relabel
+ *   towards s), so the residual array ends up holding a valid flow.
+ *
+ * Time Complexity: O(V^2 * sqrt(E)) worst case
+ * Space Complexity: O(V + E)
+ */
+public final class PushRelabelMaxFlow {
+
+    private PushRelabelMaxFlow() { }
+
+    /**
+     * Max flow from s to t starting from zero flow.
+     */
+    public static long maxFlow(FlowGraph g, int s, int t) {
+        return maxFlow(g, g.newResidual(), s, t);
+    }
+
+    /**
+     * Max flow with edge flows, minimum cut and path decomposition.
+     */
+    public static MaxFlowResult solve(FlowGraph g, int s, int t) {
+        long[] residual = g.newResidual();
+        maxFlow(g, residual, s, t);
+        return MaxFlowResult.from(g, residual, s, t);
+    }
+
+    /**
+     * Max flow from s to t, continuing from the (valid) flow already in the
+     * residual array. Returns the flow added by this call.
+     */
+    public static long maxFlow(FlowGraph g, long[] residual, int s, int t) {
+        if (s == t) throw new IllegalArgumentException("source and sink must differ");
+        Solver solver = new Solver(g, residual, s, t);
+        long flow = solver.phase1();
+        solver.phase2();
+        return flow;
+    }
+
+    private static final class Solver {
+        final FlowGraph g;
+        final long[] residual;
+        final int n, s, t;
+        final int[] offsets, head, rev;
+
+        final int[] height;
+        final long[] excess;
+        final int[] cur;
+
+        // active nodes per height (singly linked stacks)
+        final int[] activeFirst;
+        final int[] activeNext;
+        // all nodes per height below n (doubly linked), for the gap heuristic
+        final int[] allFirst;
+        final int[] allNext;
+        final int[] allPrev;
+        final int[] count;
+
+        int maxActive;      // highest height that may hold an active node
+        int maxHeight;      // highest height that may hold any node (< n)
+        long work;
+
+        Solver(FlowGraph g, long[] residual, int s, int t) {
+            this.g = g;
+            this.residual = residual;
+            this.n = g.n;
+            this.s = s;
+            this.t = t;
+            this.offsets = g.offsets;
+            this.head = g.head;
+            this.rev = g.rev;
+
+            height = new int[n];
+            excess = new long[n];
+            cur = new int[n];
+            activeFirst = new int[n + 1];
+            activeNext = new int[n];
+            allFirst = new int[n + 1];
+            allNext = new int[n];
+            allPrev = new int[n];
+            count = new int[n + 1];
+        }
+
+        // -------------------------
+        // Phase 1: push flow to t
+        // -------------------------
+
+        long phase1() {
+            for (int a = offsets[s]; a < offsets[s + 1]; a++) {
+                long c = residual[a];
+                if (c == 0) continue;
+                residual[a] = 0;
+                residual[rev[a]] += c;
+                excess[head[a]] += c;
+                excess[s] -= c;
+            }
+
+            globalRelabel();
+            long relabelBudget = 6L * n + g.head.length;
+
+            while (maxActive >= 0) {
+                int u = activeFirst[maxActive];
+                if (u < 0) {
+                    maxActive--;
+                    continue;
+                }
+                activeFirst[maxActive] = activeNext[u];
+
+                discharge(u);
+
+                if (work > relabelBudget) {
+                    work = 0;
+                    globalRelabel();
+                }
+            }
+            return excess[t];
+        }
+
+        private void discharge(int u) {
+            while (excess[u] > 0) {
+                int h = height[u];
+                int end = offsets[u + 1];
+                int a = cur[u];
+
+                for (; a < end; a++) {
+                    if (residual[a] == 0) continue;
+                    int v = head[a];
+                    if (height[v] != h - 1) continue;
+
+                    long delta = Math.min(excess[u], residual[a]);
+                    residual[a] -= delta;
+                    residual[rev[a]] += delta;
+                    if (excess[v] == 0 && v != t) activate(v);
+                    excess[v] += delta;
+                    excess[u] -= delta;
+                    if (excess[u] == 0) break;
+                }
+                cur[u] = a;
+                if (excess[u] == 0) return;
+
+                relabel(u);
+                if (height[u] >= n) return;   // cut off from t: left for phase 2
+            }
+        }
+
+        private void activate(int v) {
+            int h = height[v];
+            if (h >= n) return;
+            activeNext[v] = activeFirst[h];
+            activeFirst[h] = v;
+            if (h > maxActive) maxActive = h;
+        }
+
+        private void relabel(int u) {
+            int old = height[u];
+            unlink(u);
+
+            if (count[old] == 0) {
+                // gap: nothing at height old any more, so nothing above reaches t
+                height[u] = n;
+                for (int h = old + 1; h <= maxHeight; h++) {
+                    for (int x = allFirst[h]; x >= 0; x = allNext[x]) {
+                        height[x] = n;
+                        count[h]--;
+                    }
+                    allFirst[h] = -1;
+                    activeFirst[h] = -1;
+                }
+                maxHeight = old - 1;
+                maxActive = Math.min(maxActive, old - 1);
+                return;
+            }
+
+            int best = 2 * n;
+            int bestArc = -1;
+            for (int a = offsets[u]; a < offsets[u + 1]; a++) {
+                if (residual[a] > 0 && height[head[a]] < best) {
+                    best = height[head[a]];
+                    bestArc = a;
+                }
+            }
+            work += 12 + offsets[u + 1] - offsets[u];
+
+            int h = best + 1;
+            if (bestArc < 0 || h >= n) {
+                height[u] = n;
+                return;
+            }
+            height[u] = h;
+            cur[u] = offsets[u];
+            link(u);   // still being discharged, so not put back on the active list
+        }
+
+        /**
+         * Exact heights = BFS distance to t in the residual graph (n if none).
+         */
+        private void globalRelabel() {
+            Arrays.fill(height, n);
+            Arrays.fill(count, 0);
+            Arrays.fill(activeFirst, -1);
+            Arrays.fill(allFirst, -1);
+            maxActive = -1;
+            maxHeight = 0;
+
+            int[] queue = new int[n];
+            int qh = 0, qt = 0;
+            height[t] = 0;
+            queue[qt++] = t;
+
+            while (qh < qt) {
+                int v = queue[qh++];
+                for (int b = offsets[v]; b < offsets[v + 1]; b++) {
+                    int u = head[b];
+                    if (height[u] == n && u != s && residual[rev[b]] > 0) {
+                        height[u] = height[v] + 1;
+                        queue[qt++] = u;
+                    }
+                }
+            }
+
+            for (int u = 0; u < n; u++) {
+                if (height[u] >= n) continue;
+                cur[u] = offsets[u];
+                link(u);
+                if (excess[u] > 0 && u != t && u != s) activate(u);
+            }
+            height[s] = n;
+        }
+
+        private void link(int u) {
+            int h = height[u];
+            allPrev[u] = -1;
+            allNext[u] = allFirst[h];
+            if (allFirst[h] >= 0) allPrev[allFirst[h]] = u;
+            allFirst[h] = u;
+            count[h]++;
+            if (h > maxHeight) maxHeight = h;
+        }
+
+        private void unlink(int u) {
+            int h = height[u];
+            if (allPrev[u] >= 0) allNext[allPrev[u]] = allNext[u];
+            else allFirst[h] = allNext[u];
+            if (allNext[u] >= 0) allPrev[allNext[u]] = allPrev[u];
+            count[h]--;
+        }
+
+        // -------------------------
+        // Phase 2: return excess to s
+        // -------------------------
+
+        void phase2() {
+            // heights = BFS distance to s over arcs that can carry flow back
+            int[] d = new int[n];
+            Arrays.fill(d, Integer.MAX_VALUE);
+            int[] queue = new int[n];
+            int qh = 0, qt = 0;
+            d[s] = 0;
+            queue[qt++] = s;
+            while (qh < qt) {
+                int v = queue[qh++];
+                for (int b = offsets[v]; b < offsets[v + 1]; b++) {
+                    int u = head[b];
+                    if (d[u] == Integer.MAX_VALUE && u != t && residual[rev[b]] > 0) {
+                        d[u] = d[v] + 1;
+                        queue[qt++] = u;
+                    }
+                }
+            }
+
+            ArrayDeque<Integer> active = new ArrayDeque<>();
+            for (int u = 0; u < n; u++) {
+                cur[u] = offsets[u];
+                if (u != s && u != t && excess[u] > 0) active.add(u);
+            }
+
+            while (!active.isEmpty()) {
+                int u = active.poll();
+                while (excess[u] > 0) {
+                    int end = offsets[u + 1];
+                    int a = cur[u];
+                    for (; a < end; a++) {
+                        int v = head[a];
+                        if (residual[a] == 0 || v == t || d[u] != d[v] + 1) continue;
+
+                        long delta = Math.min(excess[u], residual[a]);
+                        residual[a] -= delta;
+                        residual[rev[a]] += delta;
+                        if (excess[v] == 0 && v != s) active.add(v);
+                        excess[v] += delta;
+                        excess[u] -= delta;
+                        if (excess[u] == 0) break;
+                    }
+                    cur[u] = a;
+                    if (excess[u] == 0) break;
+
+                    // relabel towards s
+                    int best = Integer.MAX_VALUE;
+                    for (int b = offsets[u]; b < end; b++) {
+                        int v = head[b];
+                        if (residual[b] > 0 && v != t && d[v] < best) best = d[v];
+                    }
+                    if (best == Integer.MAX_VALUE) {
+                        throw new IllegalStateException("excess at node " + u + " cannot return to the source");
+                    }
+                    d[u] = best + 1;
+                    cur[u] = offsets[u];
+                }
+            }
+        }
+    }
+}
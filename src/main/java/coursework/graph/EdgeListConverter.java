@@ -0,0 +1,352 @@
+package coursework.graph;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.stream.IntStream;
+
+/**
+ * @author Nishan Rai
+ * Parallel converter from text edge lists to an EdgeListFile.
+ *
+ * Input formats:
+ * - DIMACS (shortest path / max flow challenge files):
+ *     c comment
+ *     p sp|max <n> <m>
+ *     a <u> <v> <value>      (nodes are 1-based)
+ *     n <id> s|t             (ignored)
+ * - CSV: one edge per line, "u,v,value" or "u,v" (value 1), 0-based nodes.
+ *   Separators may be commas, semicolons, spaces or tabs; '#' starts a
+ *   comment line and a non-numeric first line is taken as a header.
+ *
+ * Algorithm:
+ * - The text file is cut into 64 MB byte ranges. Every range is memory-mapped
+ *   and parsed by its own task (a line belongs to the range it starts in).
+ *   Numbers are parsed straight from the mapped bytes in a single pass: no
+ *   String per line, no separate search for the line end.
+ * - The per-range edge arrays are then counted per tail node and scattered
+ *   into a read-write mapping of the output file in CSR order. The CSR
+ *   arrays never exist on the heap.
+ *
+ * Time Complexity: O(file size / cores + V + E)
+ * Space Complexity: O(E) heap for the parsed ranges (16 bytes per edge) + O(V)
+ */
+public final class EdgeListConverter {
+
+    public enum Format { DIMACS, CSV }
+
+    private static final long RANGE = 64L << 20;   // text bytes per task
+    private static final int MAX_LINE = 1 << 16;
+
+    private EdgeListConverter() { }
+
+    /**
+     * Edges parsed from one byte range of the text file.
+     */
+    private static final class Part {
+        int[] from = new int[1024];
+        int[] to = new int[1024];
+        double[] value = new double[1024];
+        int size;
+        int maxNode = -1;
+        int declaredN = -1;   // DIMACS "p" line
+
+        void add(int u, int v, double w) {
+            if (size == from.length) {
+                int cap = size * 2;
+                from = Arrays.copyOf(from, cap);
+                to = Arrays.copyOf(to, cap);
+                value = Arrays.copyOf(value, cap);
+            }
+            from[size] = u;
+            to[size] = v;
+            value[size] = w;
+            size++;
+            maxNode = Math.max(maxNode, Math.max(u, v));
+        }
+    }
+
+    /**
+     * Convert a text edge list and write the binary file. Returns the
+     * number of edges.
+     */
+    public static int convert(Path text, Format format, Path binary) throws IOException {
+        Part[] parts;
+        try (FileChannel ch = FileChannel.open(text, StandardOpenOption.READ)) {
+            long size = ch.size();
+            int tasks = (int) Math.max(1, (size + RANGE - 1) / RANGE);
+            parts = new Part[tasks];
+            try {
+                IntStream.range(0, tasks).parallel().forEach(k -> {
+                    try {
+                        parts[k] = parse(ch, size, k * RANGE, Math.min(size, (k + 1) * RANGE), format);
+                    } catch (IOException ex) {
+                        throw new UncheckedIOException(ex);
+                    }
+                });
+            } catch (UncheckedIOException ex) {
+                throw ex.getCause();
+            }
+        }
+
+        // ---- node count and edge count
+        int n = 0;
+        long edges = 0;
+        int declared = -1;
+        for (Part p : parts) {
+            n = Math.max(n, p.maxNode + 1);
+            edges += p.size;
+            if (p.declaredN >= 0) declared = p.declaredN;
+        }
+        if (declared >= 0) {
+            if (n > declared) throw new IOException("node id " + n + " exceeds n = " + declared + " from the p line");
+            n = declared;
+        }
+        if (edges > Integer.MAX_VALUE) throw new IOException("too many edges: " + edges);
+        int m = (int) edges;
+
+        // ---- CSR offsets
+        int[] offsets = new int[n + 1];
+        for (Part p : parts) {
+            for (int i = 0; i < p.size; i++) offsets[p.from[i] + 1]++;
+        }
+        for (int u = 0; u < n; u++) offsets[u + 1] += offsets[u];
+
+        // ---- scatter into the mapped output (parts in order keep the file order per node)
+        try (EdgeListFile.Writer w = new EdgeListFile.Writer(binary, n, m)) {
+            for (int u = 0; u <= n; u++) w.offsets.putInt(u, offsets[u]);
+
+            int[] fill = offsets;   // offsets are written, reuse as cursors
+            for (int k = 0; k < parts.length; k++) {
+                Part p = parts[k];
+                for (int i = 0; i < p.size; i++) {
+                    int pos = fill[p.from[i]]++;
+                    w.targets.putInt(pos, p.to[i]);
+                    w.values.putDouble(pos, p.value[i]);
+                }
+                parts[k] = null;   // let the GC take it before the next part
+            }
+        }
+        return m;
+    }
+
+    // -------------------------
+    // Parsing one byte range
+    // -------------------------
+
+    private static Part parse(FileChannel ch, long size, long start, long end, Format format) throws IOException {
+        Part part = new Part();
+        if (start >= end) return part;
+
+        // map one byte before the range (to see whether a line starts at start)
+        // and enough after it to finish the last line
+        long mapStart = Math.max(0, start - 1);
+        long mapEnd = Math.min(size, end + MAX_LINE);
+        MappedByteBuffer b = ch.map(FileChannel.MapMode.READ_ONLY, mapStart, mapEnd - mapStart);
+        int limit = (int) (mapEnd - mapStart);
+        int lastStart = (int) (end - mapStart);   // lines starting here or later belong to the next range
+
+        int p = 0;
+        if (start > 0) {
+            while (p < limit && b.get(p) != '\n') p++;
+            p++;
+        }
+
+        Line line = new Line(b, limit);
+        boolean firstLine = start == 0;
+        while (p < lastStart) {
+            // one pass: tokens are read up to the end of the line, then the rest is skipped
+            line.reset(p);
+            try {
+                if (format == Format.DIMACS) dimacsLine(line, part);
+                else csvLine(line, part, firstLine);
+            } catch (NumberFormatException | ArithmeticException ex) {
+                throw new IOException("bad line at byte " + (mapStart + p) + ": " + line.text(), ex);
+            }
+            int e = line.lineEnd();
+            if (e == limit && mapEnd < size) throw new IOException("line longer than " + MAX_LINE + " bytes at byte " + (mapStart + p));
+            firstLine = false;
+            p = e + 1;
+        }
+        return part;
+    }
+
+    private static void dimacsLine(Line line, Part part) {
+        line.skipSpaces();
+        if (line.atEnd()) return;
+        byte kind = line.peek();
+        switch (kind) {
+            case 'c':
+            case 'n':
+                return;
+            case 'p': {
+                line.p++;
+                line.skipWord();   // problem type: sp, max, ...
+                long n = line.nextLong();
+                if (n < 0 || n > Integer.MAX_VALUE - 1) throw new NumberFormatException("bad node count");
+                part.declaredN = (int) n;
+                return;
+            }
+            case 'a': {
+                line.p++;
+                int u = node(line.nextLong() - 1);
+                int v = node(line.nextLong() - 1);
+                double w = line.hasNext() ? line.nextDouble() : 1.0;
+                part.add(u, v, w);
+                return;
+            }
+            default:
+                throw new NumberFormatException("unknown line type '" + (char) kind + "'");
+        }
+    }
+
+    private static void csvLine(Line line, Part part, boolean firstLine) {
+        line.skipSpaces();
+        if (line.atEnd() || line.peek() == '#') return;
+        if (firstLine && !line.startsWithNumber()) return;   // header
+
+        int u = node(line.nextLong());
+        int v = node(line.nextLong());
+        double w = line.hasNext() ? line.nextDouble() : 1.0;
+        part.add(u, v, w);
+    }
+
+    private static int node(long id) {
+        if (id < 0 || id >= Integer.MAX_VALUE) throw new NumberFormatException("node id out of range: " + id);
+        return (int) id;
+    }
+
+    /**
+     * Tokenizer over one line of the mapped text.
+     */
+    private static final class Line {
+        private static final double[] POW10 = new double[19];
+        static {
+            POW10[0] = 1;
+            for (int i = 1; i < POW10.length; i++) POW10[i] = POW10[i - 1] * 10;
+        }
+
+        final MappedByteBuffer b;
+        final int end;   // end of the mapping; a line ends at '\n' or here
+        int start, p;
+
+        Line(MappedByteBuffer b, int end) {
+            this.b = b;
+            this.end = end;
+        }
+
+        void reset(int start) {
+            this.start = start;
+            this.p = start;
+        }
+
+        boolean atEnd() {
+            return p >= end || b.get(p) == '\n';
+        }
+
+        byte peek() {
+            return b.get(p);
+        }
+
+        static boolean separator(byte c) {
+            return c == ' ' || c == '\t' || c == ',' || c == ';' || c == '\r';
+        }
+
+        private boolean inToken() {
+            if (p >= end) return false;
+            byte c = b.get(p);
+            return c != '\n' && !separator(c);
+        }
+
+        void skipSpaces() {
+            while (p < end && separator(b.get(p))) p++;
+        }
+
+        void skipWord() {
+            skipSpaces();
+            while (inToken()) p++;
+        }
+
+        boolean hasNext() {
+            skipSpaces();
+            return !atEnd();
+        }
+
+        /**
+         * Position of the '\n' ending the current line (or end).
+         */
+        int lineEnd() {
+            int e = p;
+            while (e < end && b.get(e) != '\n') e++;
+            return e;
+        }
+
+        boolean startsWithNumber() {
+            byte c = b.get(p);
+            return (c >= '0' && c <= '9') || c == '-' || c == '+';
+        }
+
+        long nextLong() {
+            skipSpaces();
+            if (atEnd()) throw new NumberFormatException("missing number");
+            boolean neg = false;
+            if (b.get(p) == '-' || b.get(p) == '+') neg = b.get(p++) == '-';
+            int first = p;
+            long x = 0;
+            while (p < end) {
+                byte c = b.get(p);
+                if (c < '0' || c > '9') break;
+                x = Math.addExact(Math.multiplyExact(x, 10), c - '0');
+                p++;
+            }
+            if (p == first || inToken()) throw new NumberFormatException("not an integer");
+            return neg ? -x : x;
+        }
+
+        double nextDouble() {
+            skipSpaces();
+            int from = p;
+            while (inToken()) p++;
+
+            // fast path: [sign] digits [. digits], at most 15 significant digits
+            int i = from;
+            boolean neg = false;
+            if (i < p && (b.get(i) == '-' || b.get(i) == '+')) neg = b.get(i++) == '-';
+            long mant = 0;
+            int digits = 0, frac = -1;
+            for (; i < p; i++) {
+                byte c = b.get(i);
+                if (c >= '0' && c <= '9') {
+                    mant = mant * 10 + (c - '0');
+                    digits++;
+                    if (frac >= 0) frac++;
+                } else if (c == '.' && frac < 0) {
+                    frac = 0;
+                } else {
+                    break;
+                }
+            }
+            if (i == p && digits > 0 && digits <= 15) {
+                double x = frac > 0 ? mant / POW10[frac] : mant;
+                return neg ? -x : x;
+            }
+            return Double.parseDouble(slice(from, p));
+        }
+
+        String text() {
+            p = start;
+            return slice(start, lineEnd()).trim();
+        }
+
+        private String slice(int from, int to) {
+            byte[] bytes = new byte[to - from];
+            b.get(from, bytes);
+            return new String(bytes, StandardCharsets.US_ASCII);
+        }
+    }
+}
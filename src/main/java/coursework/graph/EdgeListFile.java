@@ -0,0 +1,179 @@
+package coursework.graph;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * @author Nishan Rai
+ * Binary edge-list file in CSR order, shared by the safest-path
+ * (ReliabilityGraph.fromEdgeList) and max-flow (FlowGraph.fromEdgeList)
+ * solvers.
+ *
+ * Why:
+ * - Main builds its graphs edge by edge in code; a real road network has
+ *   millions of edges and arrives as a text file.
+ * - Parsing text is the slow part. It is done once (EdgeListConverter) and
+ *   the result is stored in a form that needs no parsing at all.
+ * - open() memory-maps the file, so nothing is read onto the heap: the
+ *   solvers build their own arrays straight from the mapped pages, and
+ *   the OS page cache keeps the file warm between runs.
+ *
+ * File format (little-endian):
+ *   int MAGIC | int n | int m | int[n+1] offsets | int[m] targets | double[m] values
+ * - The edges of node u are offsets[u] .. offsets[u+1]-1 (sorted by tail).
+ * - values are raw: reliabilities for safest paths, capacities for max flow.
+ *
+ * Time Complexity: open O(1), forEachEdge O(V + E)
+ * Space Complexity: O(1) heap (the data stays in the mapping)
+ */
+public final class EdgeListFile implements AutoCloseable {
+
+    /**
+     * Receives the edges of a file in order (grouped by tail).
+     */
+    public interface EdgeVisitor {
+        void edge(int from, int to, double value);
+    }
+
+    private static final int MAGIC = 0x47454C31;   // "GEL1"
+    private static final int HEADER = 12;
+
+    public final int n;
+    public final int m;
+
+    private final FileChannel ch;
+    private final MappedRegion offsets;
+    private final MappedRegion targets;
+    private final MappedRegion values;
+
+    private EdgeListFile(FileChannel ch, int n, int m) throws IOException {
+        this.ch = ch;
+        this.n = n;
+        this.m = m;
+        long pos = HEADER;
+        offsets = new MappedRegion(ch, FileChannel.MapMode.READ_ONLY, pos, n + 1L, 4);
+        pos += 4L * (n + 1);
+        targets = new MappedRegion(ch, FileChannel.MapMode.READ_ONLY, pos, m, 4);
+        pos += 4L * m;
+        values = new MappedRegion(ch, FileChannel.MapMode.READ_ONLY, pos, m, 8);
+    }
+
+    /**
+     * Map a file written by write or EdgeListConverter.
+     */
+    public static EdgeListFile open(Path file) throws IOException {
+        FileChannel ch = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            if (ch.size() < HEADER) throw new IOException("not an edge list file: " + file);
+            MappedRegion head = new MappedRegion(ch, FileChannel.MapMode.READ_ONLY, 0, 3, 4);
+            if (head.getInt(0) != MAGIC) throw new IOException("not an edge list file: " + file);
+            int n = head.getInt(1);
+            int m = head.getInt(2);
+            if (n < 0 || m < 0) throw new IOException("corrupt header: " + file);
+
+            long expected = fileSize(n, m);
+            if (ch.size() != expected) throw new IOException("size mismatch: expected " + expected + " bytes, got " + ch.size());
+
+            EdgeListFile f = new EdgeListFile(ch, n, m);
+            if (f.offset(0) != 0 || f.offset(n) != m) throw new IOException("corrupt offsets: " + file);
+            return f;
+        } catch (IOException | RuntimeException ex) {
+            ch.close();
+            throw ex;
+        }
+    }
+
+    /**
+     * Write in-heap CSR arrays (edges of u = offsets[u] .. offsets[u+1]-1).
+     */
+    public static void write(Path file, int n, int[] offsets, int[] targets, double[] values) throws IOException {
+        if (offsets.length != n + 1 || offsets[0] != 0) throw new IllegalArgumentException("offsets must have n+1 entries starting at 0");
+        int m = offsets[n];
+        if (targets.length != m || values.length != m) throw new IllegalArgumentException("targets/values must have offsets[n] entries");
+
+        try (Writer w = new Writer(file, n, m)) {
+            for (int u = 0; u <= n; u++) w.offsets.putInt(u, offsets[u]);
+            for (int i = 0; i < m; i++) {
+                w.targets.putInt(i, targets[i]);
+                w.values.putDouble(i, values[i]);
+            }
+        }
+    }
+
+    static long fileSize(int n, int m) {
+        return HEADER + 4L * (n + 1) + 4L * m + 8L * m;
+    }
+
+    /**
+     * Read-write mapping of a new file of the right size (used by write and
+     * by EdgeListConverter, which scatters edges into it directly).
+     */
+    static final class Writer implements AutoCloseable {
+        final FileChannel ch;
+        final MappedRegion header, offsets, targets, values;
+
+        Writer(Path file, int n, int m) throws IOException {
+            ch = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+            header = new MappedRegion(ch, FileChannel.MapMode.READ_WRITE, 0, 3, 4);
+            header.putInt(0, MAGIC);
+            header.putInt(1, n);
+            header.putInt(2, m);
+
+            long pos = HEADER;
+            offsets = new MappedRegion(ch, FileChannel.MapMode.READ_WRITE, pos, n + 1L, 4);
+            pos += 4L * (n + 1);
+            targets = new MappedRegion(ch, FileChannel.MapMode.READ_WRITE, pos, m, 4);
+            pos += 4L * m;
+            values = new MappedRegion(ch, FileChannel.MapMode.READ_WRITE, pos, m, 8);
+        }
+
+        @Override
+        public void close() throws IOException {
+            offsets.force();
+            targets.force();
+            values.force();
+            header.force();
+            ch.close();
+        }
+    }
+
+    // -------------------------
+    // Access
+    // -------------------------
+
+    public int offset(int u) {
+        return offsets.getInt(u);
+    }
+
+    public int target(int i) {
+        return targets.getInt(i);
+    }
+
+    public double value(int i) {
+        return values.getDouble(i);
+    }
+
+    /**
+     * Visit every edge, node by node, in file order.
+     */
+    public void forEachEdge(EdgeVisitor visitor) {
+        int i = 0;
+        for (int u = 0; u < n; u++) {
+            int end = offset(u + 1);
+            if (end < i || end > m) throw new IllegalStateException("corrupt offsets at node " + u);
+            for (; i < end; i++) {
+                int v = target(i);
+                if (v < 0 || v >= n) throw new IllegalStateException("edge target out of range: " + v);
+                visitor.edge(u, v, value(i));
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        ch.close();
+    }
+}
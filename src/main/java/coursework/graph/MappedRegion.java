@@ -0,0 +1,65 @@
+package coursework.graph;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * @author Nishan Rai
+ * A memory-mapped array of ints or doubles inside a file, of any size.
+ *
+ * One MappedByteBuffer can only cover 2 GB, so the region is mapped in
+ * 1 GB chunks and element i is found with a shift and a mask. Reads and
+ * writes go straight to the page cache: nothing is copied onto the heap.
+ */
+final class MappedRegion {
+
+    private static final int CHUNK_BITS = 30;
+    private static final long CHUNK_MASK = (1L << CHUNK_BITS) - 1;
+
+    private final MappedByteBuffer[] chunks;
+    private final int elemBytes;
+
+    MappedRegion(FileChannel ch, FileChannel.MapMode mode, long pos, long count, int elemBytes) throws IOException {
+        this.elemBytes = elemBytes;
+        long bytes = count * elemBytes;
+        int k = (int) ((bytes + CHUNK_MASK) >>> CHUNK_BITS);
+        chunks = new MappedByteBuffer[k];
+        for (int c = 0; c < k; c++) {
+            long start = (long) c << CHUNK_BITS;
+            long len = Math.min(1L << CHUNK_BITS, bytes - start);
+            chunks[c] = ch.map(mode, pos + start, len);
+            chunks[c].order(ByteOrder.LITTLE_ENDIAN);
+        }
+    }
+
+    // chunk size is a multiple of 8, so an element never straddles two chunks
+
+    int getInt(long i) {
+        long b = i * elemBytes;
+        return chunks[(int) (b >>> CHUNK_BITS)].getInt((int) (b & CHUNK_MASK));
+    }
+
+    void putInt(long i, int v) {
+        long b = i * elemBytes;
+        chunks[(int) (b >>> CHUNK_BITS)].putInt((int) (b & CHUNK_MASK), v);
+    }
+
+    double getDouble(long i) {
+        long b = i * elemBytes;
+        return chunks[(int) (b >>> CHUNK_BITS)].getDouble((int) (b & CHUNK_MASK));
+    }
+
+    void putDouble(long i, double v) {
+        long b = i * elemBytes;
+        chunks[(int) (b >>> CHUNK_BITS)].putDouble((int) (b & CHUNK_MASK), v);
+    }
+
+    /**
+     * Flush written pages to the file.
+     */
+    void force() {
+        for (MappedByteBuffer c : chunks) c.force();
+    }
+}
@@ -0,0 +1,57 @@
+package coursework.Q5;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Nishan Rai
+ * Token bucket and AIMD behaviour of RateLimiter.
+ */
+class RateLimiterTest {
+
+    @Test
+    void burstIsAvailableImmediatelyThenRequestsWait() {
+        RateLimiter limiter = new RateLimiter(10, 3);
+        for (int i = 0; i < 3; i++) assertEquals(0, limiter.tryTake());
+        assertTrue(limiter.tryTake() > 0);
+    }
+
+    @Test
+    void throttlingHalvesTheRateAndSuccessCreepsBack() {
+        RateLimiter limiter = new RateLimiter(64, 1);
+        limiter.onThrottled(null);
+        limiter.onThrottled(null);
+        assertEquals(16, limiter.currentRate(), 1e-9);
+
+        limiter.onSuccess();
+        assertEquals(16 + 64 / 20.0, limiter.currentRate(), 1e-9);
+        for (int i = 0; i < 100; i++) limiter.onSuccess();
+        assertEquals(64, limiter.currentRate(), 1e-9);
+
+        for (int i = 0; i < 100; i++) limiter.onThrottled(null);
+        assertEquals(1, limiter.currentRate(), 1e-9);   // floor: maxRate / 64
+    }
+
+    @Test
+    void nothingIsTakenDuringRetryAfterPause() {
+        RateLimiter limiter = new RateLimiter(100, 10);
+        limiter.onThrottled(Duration.ofSeconds(5));
+        long wait = limiter.tryTake();
+        assertTrue(wait > Duration.ofSeconds(4).toNanos(), "waits " + wait + " ns");
+    }
+
+    @Test
+    void bucketDoesNotRefillDuringThePause() throws Exception {
+        // rate 10/s halves to 5/s: 200 ms of refilling per token
+        RateLimiter limiter = new RateLimiter(10, 10);
+        limiter.onThrottled(Duration.ofMillis(300));
+        Thread.sleep(350);
+
+        // ~50 ms past the pause: a quarter token, not the 1.75 a refill
+        // counted from the 429 would give
+        assertTrue(limiter.tryTake() > 0);
+    }
+}
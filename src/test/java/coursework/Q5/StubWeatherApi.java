@@ -0,0 +1,185 @@
+package coursework.Q5;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author Nishan Rai
+ * Local stand-in for the OpenWeatherMap endpoints the engine uses, so the
+ * engine can be tested without a network or an API key (pass baseUrl()).
+ *
+ * - GET /data/2.5/weather?q=City answers with a fixed document for City.
+ * - GET /data/2.5/group?id=1,2 answers {"cnt", "list"} with city "City<id>"
+ *   for every ID except those passed to unknown().
+ * - Every request is counted per city (lower case) and timestamped; group
+ *   sizes are recorded.
+ * - failNext() queues error responses (e.g. 429 with Retry-After) that are
+ *   served, in order, before normal answers resume.
+ * - hold() makes responses wait until release(), to keep requests in flight.
+ */
+final class StubWeatherApi implements AutoCloseable {
+
+    private final HttpServer server;
+    private final ExecutorService pool = Executors.newCachedThreadPool();
+    private final Map<String, AtomicInteger> hits = new ConcurrentHashMap<>();
+    private final AtomicInteger requests = new AtomicInteger();
+    private final List<Long> times = Collections.synchronizedList(new ArrayList<>());
+    private final List<Integer> groups = Collections.synchronizedList(new ArrayList<>());
+    private final Set<Long> unknown = ConcurrentHashMap.newKeySet();
+    private final Queue<Object[]> failures = new ConcurrentLinkedQueue<>();   // {code, Retry-After or null}
+    private volatile CountDownLatch gate = new CountDownLatch(0);
+
+    StubWeatherApi() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/data/2.5/weather", this::weather);
+        server.createContext("/data/2.5/group", this::group);
+        server.setExecutor(pool);
+        server.start();
+    }
+
+    String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    /**
+     * Upstream requests seen for this city.
+     */
+    int hits(String city) {
+        AtomicInteger n = hits.get(city.toLowerCase(Locale.ROOT));
+        return n == null ? 0 : n.get();
+    }
+
+    int requests() {
+        return requests.get();
+    }
+
+    /**
+     * System.nanoTime() of every request, in arrival order.
+     */
+    List<Long> times() {
+        synchronized (times) {
+            return new ArrayList<>(times);
+        }
+    }
+
+    /**
+     * Number of IDs in each group request, in arrival order.
+     */
+    List<Integer> groupSizes() {
+        synchronized (groups) {
+            return new ArrayList<>(groups);
+        }
+    }
+
+    void unknown(long id) {
+        unknown.add(id);
+    }
+
+    /**
+     * Answer the next request with this status (and Retry-After header if not null).
+     */
+    void failNext(int code, String retryAfter) {
+        failures.add(new Object[]{code, retryAfter});
+    }
+
+    void hold() {
+        gate = new CountDownLatch(1);
+    }
+
+    void release() {
+        gate.countDown();
+    }
+
+    private void weather(HttpExchange ex) throws IOException {
+        requests.incrementAndGet();
+        times.add(System.nanoTime());
+        String city = query(ex, "q");
+        hits.computeIfAbsent(city.toLowerCase(Locale.ROOT), k -> new AtomicInteger()).incrementAndGet();
+        await();
+        if (!failed(ex)) reply(ex, 200, document(0, city));
+    }
+
+    private void group(HttpExchange ex) throws IOException {
+        requests.incrementAndGet();
+        times.add(System.nanoTime());
+        String[] ids = query(ex, "id").split(",");
+        groups.add(ids.length);
+        await();
+        if (failed(ex)) return;
+
+        StringBuilder list = new StringBuilder();
+        int cnt = 0;
+        for (String s : ids) {
+            long id = Long.parseLong(s);
+            if (unknown.contains(id)) continue;
+            if (cnt++ > 0) list.append(',');
+            list.append(document(id, "City" + id));
+        }
+        reply(ex, 200, "{\"cnt\":" + cnt + ",\"list\":[" + list + "]}");
+    }
+
+    private boolean failed(HttpExchange ex) throws IOException {
+        Object[] f = failures.poll();
+        if (f == null) return false;
+        if (f[1] != null) ex.getResponseHeaders().set("Retry-After", (String) f[1]);
+        reply(ex, (Integer) f[0], "{\"cod\":" + f[0] + ",\"message\":\"stub failure\"}");
+        return true;
+    }
+
+    private void await() {
+        try {
+            gate.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    static String document(long id, String city) {
+        return "{\"coord\":{\"lon\":85.3,\"lat\":27.7},\"weather\":[{\"id\":800,\"main\":\"Clear\"}],"
+                + "\"main\":{\"temp\":21.5,\"humidity\":40},\"wind\":{\"speed\":2.5},"
+                + "\"id\":" + id + ",\"name\":\"" + city + "\"}";
+    }
+
+    static String query(HttpExchange ex, String name) {
+        for (String kv : ex.getRequestURI().getRawQuery().split("&")) {
+            int eq = kv.indexOf('=');
+            if (kv.substring(0, eq).equals(name)) return URLDecoder.decode(kv.substring(eq + 1), StandardCharsets.UTF_8);
+        }
+        return "";
+    }
+
+    static void reply(HttpExchange ex, int code, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        ex.getResponseHeaders().set("Content-Type", "application/json");
+        ex.sendResponseHeaders(code, bytes.length);
+        try (OutputStream out = ex.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    @Override
+    public void close() {
+        release();
+        server.stop(0);
+        pool.shutdownNow();
+    }
+}
@@ -0,0 +1,87 @@
+package coursework.Q5;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Nishan Rai
+ * WeatherCache behind a WeatherFetchEngine, against StubWeatherApi:
+ * TTL expiry, LRU eviction and single flight for concurrent lookups.
+ */
+class WeatherCacheTest {
+
+    private StubWeatherApi api;
+
+    @BeforeEach
+    void start() throws Exception {
+        api = new StubWeatherApi();
+    }
+
+    @AfterEach
+    void stop() {
+        api.close();
+    }
+
+    private WeatherFetchEngine engine(Duration ttl, int size) {
+        return new WeatherFetchEngine(api.baseUrl(), "test-key", 16, Duration.ofSeconds(5), ttl, size, null);
+    }
+
+    @Test
+    void freshEntryIsServedFromCacheUntilTtlExpires() throws Exception {
+        try (WeatherFetchEngine engine = engine(Duration.ofMillis(300), 10)) {
+            assertEquals("Kathmandu", engine.fetchCity("Kathmandu").city);
+            assertEquals("Kathmandu", engine.fetchCity("  KATHMANDU ").city);
+            assertEquals(1, api.hits("Kathmandu"));
+            assertEquals(1, engine.cache().hits());
+
+            Thread.sleep(400);
+            engine.fetchCity("Kathmandu");
+            assertEquals(2, api.hits("Kathmandu"));
+            assertEquals(1, engine.cache().stale());
+        }
+    }
+
+    @Test
+    void leastRecentlyUsedCityIsEvicted() throws Exception {
+        try (WeatherFetchEngine engine = engine(Duration.ofMinutes(10), 2)) {
+            engine.fetchCity("Pokhara");
+            engine.fetchCity("Lalitpur");
+            engine.fetchCity("Pokhara");       // Lalitpur is now the eldest
+            engine.fetchCity("Biratnagar");    // evicts Lalitpur
+            assertEquals(2, engine.cache().size());
+
+            engine.fetchCity("Pokhara");
+            assertEquals(1, api.hits("Pokhara"));
+
+            engine.fetchCity("Lalitpur");
+            assertEquals(2, api.hits("Lalitpur"));
+        }
+    }
+
+    @Test
+    void concurrentLookupsOfOneCityShareOneUpstreamRequest() throws Exception {
+        int callers = 20;
+        try (WeatherFetchEngine engine = engine(Duration.ofMinutes(10), 10)) {
+            api.hold();
+            List<CompletableFuture<WeatherRow>> futures = new ArrayList<>();
+            for (int i = 0; i < callers; i++) futures.add(engine.fetchAsync("Birgunj"));
+
+            // every caller but the leader is waiting on the leader's load
+            long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+            while (engine.cache().coalesced() < callers - 1 && System.nanoTime() < deadline) Thread.sleep(5);
+            api.release();
+
+            for (CompletableFuture<WeatherRow> f : futures) assertEquals("Birgunj", f.get().city);
+            assertEquals(1, api.hits("Birgunj"));
+            assertEquals(callers - 1, engine.cache().coalesced());
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package coursework.Q5;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Nishan Rai
+ * WeatherFetchEngine retries and group batching against StubWeatherApi.
+ */
+class WeatherFetchEngineTest {
+
+    private StubWeatherApi api;
+
+    @BeforeEach
+    void start() throws Exception {
+        api = new StubWeatherApi();
+    }
+
+    @AfterEach
+    void stop() {
+        api.close();
+    }
+
+    private WeatherFetchEngine engine(int cacheSize, RateLimiter limiter) {
+        return new WeatherFetchEngine(api.baseUrl(), "test-key", 16, Duration.ofSeconds(5),
+                Duration.ofMinutes(10), cacheSize, limiter);
+    }
+
+    /**
+     * Listener that collects rows and errors (the key is the city or ID).
+     */
+    private static final class Collector implements WeatherFetchEngine.Listener {
+        final Map<String, WeatherRow> rows = new ConcurrentHashMap<>();
+        final Map<String, Throwable> errors = new ConcurrentHashMap<>();
+
+        @Override
+        public void onResult(WeatherRow row) {
+            rows.put(row.city, row);
+        }
+
+        @Override
+        public void onError(String city, Throwable error) {
+            errors.put(city, error);
+        }
+    }
+
+    private static List<Long> ids(int from, int to) {
+        List<Long> ids = new ArrayList<>();
+        for (long id = from; id < to; id++) ids.add(id);
+        return ids;
+    }
+
+    // -------------------------
+    // Retries
+    // -------------------------
+
+    @Test
+    void throttledRequestWaitsForRetryAfterAndSlowsTheLimiter() throws Exception {
+        RateLimiter limiter = new RateLimiter(100, 10);
+        try (WeatherFetchEngine engine = engine(0, limiter)) {
+            api.failNext(429, "1");
+
+            assertEquals("Kathmandu", engine.fetchCity("Kathmandu").city);
+
+            List<Long> times = api.times();
+            assertEquals(2, times.size());
+            long gapMs = (times.get(1) - times.get(0)) / 1_000_000;
+            assertTrue(gapMs >= 950, "retried after " + gapMs + " ms, Retry-After was 1 s");
+            assertTrue(limiter.currentRate() < 100, "rate " + limiter.currentRate() + " was not reduced");
+        }
+    }
+
+    @Test
+    void throttledRequestWithoutRetryAfterBacksOff() throws Exception {
+        RateLimiter limiter = new RateLimiter(100, 10);
+        try (WeatherFetchEngine engine = engine(0, limiter)) {
+            api.failNext(429, null);
+            api.failNext(429, null);
+
+            assertEquals("Pokhara", engine.fetchCity("Pokhara").city);
+            assertEquals(3, api.requests());
+            // two halvings, then one success step of maxRate / 20
+            assertEquals(30, limiter.currentRate(), 1e-9);
+        }
+    }
+
+    @Test
+    void serverErrorsAreRetriedUpToTheAttemptLimit() throws Exception {
+        try (WeatherFetchEngine engine = engine(0, null)) {
+            api.failNext(503, null);
+            api.failNext(502, null);
+            assertEquals("Lalitpur", engine.fetchCity("Lalitpur").city);
+            assertEquals(3, api.requests());
+
+            for (int i = 0; i < 4; i++) api.failNext(500, null);
+            Exception ex = assertThrows(Exception.class, () -> engine.fetchCity("Biratnagar"));
+            assertTrue(ex.getMessage().contains("HTTP 500"), ex.getMessage());
+            assertEquals(3 + 4, api.requests());
+        }
+    }
+
+    @Test
+    void clientErrorsAreNotRetried() throws Exception {
+        try (WeatherFetchEngine engine = engine(0, null)) {
+            api.failNext(404, null);
+            assertThrows(Exception.class, () -> engine.fetchCity("Nowhere"));
+            assertEquals(1, api.requests());
+        }
+    }
+
+    @Test
+    void backoffIsJitteredBelowTheExponentialCeiling() {
+        for (int attempt = 1; attempt <= 10; attempt++) {
+            long ceiling = Math.min(8_000, 250L << attempt);
+            Set<Long> seen = new HashSet<>();
+            for (int i = 0; i < 500; i++) {
+                long ms = WeatherFetchEngine.backoffMillis(attempt);
+                assertTrue(ms >= 0 && ms <= ceiling, "attempt " + attempt + ": " + ms + " ms");
+                seen.add(ms);
+            }
+            assertTrue(seen.size() > 100, "attempt " + attempt + " is not jittered");
+        }
+    }
+
+    // -------------------------
+    // Group batching
+    // -------------------------
+
+    @Test
+    void idsAreSentInGroupsOfAtMostTwenty() throws Exception {
+        try (WeatherFetchEngine engine = engine(0, null)) {
+            api.unknown(7);
+            Collector c = new Collector();
+
+            engine.fetchAllById(ids(1, 46), c).get();
+
+            List<Integer> sizes = api.groupSizes();
+            Collections.sort(sizes);
+            assertEquals(List.of(5, 20, 20), sizes);
+            assertEquals(44, c.rows.size());
+            assertEquals(Set.of("7"), c.errors.keySet());
+            assertEquals(12, c.rows.get("City12").id);
+        }
+    }
+
+    @Test
+    void batchedFetchesGoThroughTheCache() throws Exception {
+        try (WeatherFetchEngine engine = engine(100, null)) {
+            engine.fetchAllById(ids(1, 26), new Collector()).get();
+
+            // 1..25 are fresh: only 26..30 are requested, in one group
+            Collector c = new Collector();
+            engine.fetchAllById(ids(1, 31), c).get();
+
+            List<Integer> sizes = api.groupSizes();
+            assertEquals(3, sizes.size());
+            assertEquals(5, (int) sizes.get(2));
+            assertEquals(30, c.rows.size());
+            assertTrue(c.errors.isEmpty());
+            assertEquals(25, engine.cache().hits());
+        }
+    }
+
+    @Test
+    void failedGroupReportsEveryIdOfTheBatchAndIsNotCached() throws Exception {
+        try (WeatherFetchEngine engine = engine(100, null)) {
+            api.failNext(401, null);
+            Collector c = new Collector();
+            engine.fetchAllById(ids(1, 4), c).get();
+            assertEquals(Set.of("1", "2", "3"), c.errors.keySet());
+            assertEquals(0, engine.cache().size());
+
+            engine.fetchAllById(ids(1, 4), c).get();
+            assertEquals(3, c.rows.size());
+        }
+    }
+}